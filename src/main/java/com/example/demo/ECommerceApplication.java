@@ -1,5 +1,6 @@
 package com.example.demo;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
@@ -8,14 +9,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import com.example.demo.security.BoundedBCryptPasswordEncoder;
+
 @EnableJpaRepositories("com.example.demo.model.persistence.repositories")
 @EntityScan("com.example.demo.model.persistence")
 @SpringBootApplication(exclude = { SecurityAutoConfiguration.class })
 public class ECommerceApplication {
 
 	@Bean
-	public BCryptPasswordEncoder bCryptPasswordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BCryptPasswordEncoder bCryptPasswordEncoder(@Value("${ecommerce.security.bcrypt.strength:10}") int strength,
+			@Value("${ecommerce.security.bcrypt.threads:0}") int threads,
+			@Value("${ecommerce.security.bcrypt.queue-capacity:64}") int queueCapacity,
+			@Value("${ecommerce.security.bcrypt.max-wait-ms:2000}") long maxWaitMillis) {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		return new BoundedBCryptPasswordEncoder(strength, poolSize, queueCapacity, maxWaitMillis);
 	}
 
 	public static void main(String[] args) {
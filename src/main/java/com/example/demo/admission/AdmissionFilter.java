@@ -0,0 +1,111 @@
+package com.example.demo.admission;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Turns requests away before they reach the security chain or a controller
+ * when the connection pool is under pressure, so they fail in microseconds
+ * with 503 instead of holding a Tomcat thread while they wait out the pool's
+ * connection timeout. Low priority routes are shed as soon as the pool is
+ * under pressure, normal routes once it is saturated, and critical routes
+ * (checkout, login) are always admitted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+	private static final Logger log = LoggerFactory.getLogger(AdmissionFilter.class);
+
+	private final ConnectionPoolMonitor monitor;
+	private final boolean enabled;
+	private final String[] lowPriority;
+	private final String[] criticalPriority;
+	private final AntPathMatcher matcher = new AntPathMatcher();
+
+	private final Map<Priority, LongAdder> admitted = new EnumMap<>(Priority.class);
+	private final Map<Priority, LongAdder> shed = new EnumMap<>(Priority.class);
+
+	public AdmissionFilter(ConnectionPoolMonitor monitor,
+			@Value("${ecommerce.admission.enabled:true}") boolean enabled,
+			@Value("${ecommerce.admission.low-priority:/api/item/**}") String[] lowPriority,
+			@Value("${ecommerce.admission.critical-priority:/api/order/submit/**,/api/order/submitAsync/**,/login}") String[] criticalPriority) {
+		this.monitor = monitor;
+		this.enabled = enabled;
+		this.lowPriority = lowPriority;
+		this.criticalPriority = criticalPriority;
+		for (Priority priority : Priority.values()) {
+			admitted.put(priority, new LongAdder());
+			shed.put(priority, new LongAdder());
+		}
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (!enabled) {
+			chain.doFilter(request, response);
+			return;
+		}
+		Priority priority = priorityOf(request.getRequestURI());
+		if (shouldShed(priority, monitor.getPressure())) {
+			shed.get(priority).increment();
+			log.debug("Shed {} priority request {}", priority, request.getRequestURI());
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader("Retry-After", "1");
+			return;
+		}
+		admitted.get(priority).increment();
+		chain.doFilter(request, response);
+	}
+
+	public Priority priorityOf(String path) {
+		for (String pattern : criticalPriority) {
+			if (matcher.match(pattern, path)) {
+				return Priority.CRITICAL;
+			}
+		}
+		for (String pattern : lowPriority) {
+			if (matcher.match(pattern, path)) {
+				return Priority.LOW;
+			}
+		}
+		return Priority.NORMAL;
+	}
+
+	public long getAdmittedCount(Priority priority) {
+		return admitted.get(priority).sum();
+	}
+
+	public long getShedCount(Priority priority) {
+		return shed.get(priority).sum();
+	}
+
+	private static boolean shouldShed(Priority priority, PoolPressure pressure) {
+		switch (priority) {
+		case LOW:
+			return pressure != PoolPressure.NORMAL;
+		case NORMAL:
+			return pressure == PoolPressure.SATURATED;
+		default:
+			return false;
+		}
+	}
+}
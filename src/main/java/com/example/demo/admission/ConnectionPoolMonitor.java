@@ -0,0 +1,175 @@
+package com.example.demo.admission;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+
+/**
+ * Rates the pressure on the primary connection pool from its live counts
+ * (connections in use, threads waiting for one) and from recent acquire
+ * latency, which Hikari reports through a metrics tracker. Latency is kept as
+ * a moving average that is ignored once no connection has been acquired for
+ * a whole window, so the pool reads as calm again after load falls away.
+ * Hikari takes a single tracker factory, so any other factory in the context
+ * (such as the metrics exporter's) is chained behind this one.
+ */
+@Component
+public class ConnectionPoolMonitor {
+
+	private static final Logger log = LoggerFactory.getLogger(ConnectionPoolMonitor.class);
+
+	private static final double SMOOTHING = 0.2;
+
+	private final Supplier<HikariPoolMXBean> pool;
+	private final int maximumPoolSize;
+	private final long elevatedAcquireNanos;
+	private final long saturatedAcquireNanos;
+	private final int saturatedPending;
+	private final long windowNanos;
+
+	// Updated without locking: a racing sample may be lost, which only
+	// makes the average slightly less smooth.
+	private volatile double averageAcquireNanos;
+	private volatile long lastAcquireAt;
+	private volatile long lastTimeoutAt;
+
+	@Autowired
+	public ConnectionPoolMonitor(DataSource dataSource, ObjectProvider<MetricsTrackerFactory> trackerFactory,
+			@Value("${ecommerce.admission.elevated-acquire-ms:20}") long elevatedAcquireMillis,
+			@Value("${ecommerce.admission.saturated-acquire-ms:250}") long saturatedAcquireMillis,
+			@Value("${ecommerce.admission.saturated-pending:10}") int saturatedPending,
+			@Value("${ecommerce.admission.window-ms:1000}") long windowMillis) {
+		this(hikari(dataSource), trackerFactory.getIfAvailable(), elevatedAcquireMillis, saturatedAcquireMillis,
+				saturatedPending, windowMillis);
+	}
+
+	private ConnectionPoolMonitor(HikariDataSource hikari, MetricsTrackerFactory delegate, long elevatedAcquireMillis,
+			long saturatedAcquireMillis, int saturatedPending, long windowMillis) {
+		this(hikari == null ? () -> null : hikari::getHikariPoolMXBean,
+				hikari == null ? Integer.MAX_VALUE : hikari.getMaximumPoolSize(), elevatedAcquireMillis,
+				saturatedAcquireMillis, saturatedPending, windowMillis);
+		if (hikari == null) {
+			log.warn("Primary data source is not a Hikari pool; admission control will admit everything");
+		} else if (hikari.getMetricsTrackerFactory() == null) {
+			hikari.setMetricsTrackerFactory((poolName, poolStats) -> new AcquireTracker(
+					delegate == null ? new IMetricsTracker() {} : delegate.create(poolName, poolStats)));
+		} else {
+			log.warn("Pool {} already has a metrics tracker; admission control will not see acquire latency",
+					hikari.getPoolName());
+		}
+	}
+
+	ConnectionPoolMonitor(Supplier<HikariPoolMXBean> pool, int maximumPoolSize, long elevatedAcquireMillis,
+			long saturatedAcquireMillis, int saturatedPending, long windowMillis) {
+		this.pool = pool;
+		this.maximumPoolSize = maximumPoolSize;
+		this.elevatedAcquireNanos = TimeUnit.MILLISECONDS.toNanos(elevatedAcquireMillis);
+		this.saturatedAcquireNanos = TimeUnit.MILLISECONDS.toNanos(saturatedAcquireMillis);
+		this.saturatedPending = saturatedPending;
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+	}
+
+	public PoolPressure getPressure() {
+		HikariPoolMXBean mxBean = pool.get();
+		if (mxBean == null) {
+			return PoolPressure.NORMAL;
+		}
+		long now = System.nanoTime();
+		long acquireNanos = getRecentAcquireNanos(now);
+		int pending = mxBean.getThreadsAwaitingConnection();
+		if (pending >= saturatedPending || acquireNanos >= saturatedAcquireNanos
+				|| (lastTimeoutAt != 0 && now - lastTimeoutAt < windowNanos)) {
+			return PoolPressure.SATURATED;
+		}
+		if (pending > 0 || acquireNanos >= elevatedAcquireNanos || mxBean.getActiveConnections() >= maximumPoolSize) {
+			return PoolPressure.ELEVATED;
+		}
+		return PoolPressure.NORMAL;
+	}
+
+	public void recordAcquire(long nanos) {
+		averageAcquireNanos = lastAcquireAt == 0 ? nanos : averageAcquireNanos + SMOOTHING * (nanos - averageAcquireNanos);
+		lastAcquireAt = System.nanoTime();
+	}
+
+	public void recordTimeout() {
+		lastTimeoutAt = System.nanoTime();
+	}
+
+	public int getActiveConnections() {
+		HikariPoolMXBean mxBean = pool.get();
+		return mxBean == null ? 0 : mxBean.getActiveConnections();
+	}
+
+	public int getPendingThreads() {
+		HikariPoolMXBean mxBean = pool.get();
+		return mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection();
+	}
+
+	public double getRecentAcquireMillis() {
+		return getRecentAcquireNanos(System.nanoTime()) / 1_000_000.0;
+	}
+
+	private long getRecentAcquireNanos(long now) {
+		long last = lastAcquireAt;
+		return last == 0 || now - last >= windowNanos ? 0 : (long) averageAcquireNanos;
+	}
+
+	private static HikariDataSource hikari(DataSource dataSource) {
+		try {
+			return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+
+	private final class AcquireTracker implements IMetricsTracker {
+
+		private final IMetricsTracker delegate;
+
+		private AcquireTracker(IMetricsTracker delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+			delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+		}
+
+		@Override
+		public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+			recordAcquire(elapsedAcquiredNanos);
+			delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+		}
+
+		@Override
+		public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+			delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+		}
+
+		@Override
+		public void recordConnectionTimeout() {
+			recordTimeout();
+			delegate.recordConnectionTimeout();
+		}
+
+		@Override
+		public void close() {
+			delegate.close();
+		}
+	}
+}
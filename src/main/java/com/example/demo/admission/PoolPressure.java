@@ -0,0 +1,13 @@
+package com.example.demo.admission;
+
+public enum PoolPressure {
+
+	/** Connections are available without waiting. */
+	NORMAL,
+
+	/** Every connection is in use or acquiring one has become slow. */
+	ELEVATED,
+
+	/** Many threads are queued for a connection, acquisition is very slow or has timed out. */
+	SATURATED
+}
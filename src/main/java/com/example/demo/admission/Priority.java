@@ -0,0 +1,16 @@
+package com.example.demo.admission;
+
+/**
+ * How readily a route gives way when the connection pool is under pressure.
+ */
+public enum Priority {
+
+	/** Shed as soon as the pool is under pressure, e.g. catalog browsing. */
+	LOW,
+
+	/** Shed only once the pool is saturated. */
+	NORMAL,
+
+	/** Never shed, e.g. checkout and login. */
+	CRITICAL
+}
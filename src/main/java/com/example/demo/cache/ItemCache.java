@@ -0,0 +1,89 @@
+package com.example.demo.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.listeners.ItemChangedEvent;
+
+/**
+ * Read-through cache for catalog lookups served by the item API. Entries are
+ * dropped once the writing transaction commits, so readers never see a row
+ * older than the last committed change plus the configured time-to-live.
+ */
+@Component
+public class ItemCache {
+
+	private static final String ALL_ITEMS = "*";
+
+	private final LruCache<Long, Optional<Item>> byId;
+	private final LruCache<String, List<Item>> byName;
+	private final LruCache<String, List<Item>> listing;
+
+	public ItemCache(@Value("${ecommerce.cache.item.max-size:10000}") int maxSize,
+			@Value("${ecommerce.cache.item.ttl-seconds:300}") long ttlSeconds) {
+		this.byId = new LruCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+		this.byName = new LruCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+		this.listing = new LruCache<>(1, ttlSeconds, TimeUnit.SECONDS);
+	}
+
+	public Optional<Item> findById(Long id, Function<Long, Optional<Item>> loader) {
+		return byId.get(id, loader);
+	}
+
+	public List<Item> findByName(String name, Function<String, List<Item>> loader) {
+		return byName.get(name, key -> unmodifiable(loader.apply(key)));
+	}
+
+	public List<Item> findAll(Supplier<List<Item>> loader) {
+		return listing.get(ALL_ITEMS, key -> unmodifiable(loader.get()));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onItemChanged(ItemChangedEvent event) {
+		Item item = event.getItem();
+		byId.invalidate(item.getId());
+		byName.invalidateAll();
+		listing.invalidateAll();
+	}
+
+	public void invalidateAll() {
+		byId.invalidateAll();
+		byName.invalidateAll();
+		listing.invalidateAll();
+	}
+
+	public long getHitCount() {
+		return byId.getHitCount() + byName.getHitCount() + listing.getHitCount();
+	}
+
+	public long getMissCount() {
+		return byId.getMissCount() + byName.getMissCount() + listing.getMissCount();
+	}
+
+	public long getEvictionCount() {
+		return byId.getEvictionCount() + byName.getEvictionCount() + listing.getEvictionCount();
+	}
+
+	public double getHitRate() {
+		long hitCount = getHitCount();
+		long total = hitCount + getMissCount();
+		return total == 0 ? 0.0 : (double) hitCount / total;
+	}
+
+	public int size() {
+		return byId.size() + byName.size() + listing.size();
+	}
+
+	private static List<Item> unmodifiable(List<Item> items) {
+		return items == null ? null : Collections.unmodifiableList(items);
+	}
+}
@@ -0,0 +1,109 @@
+package com.example.demo.cache;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.listeners.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+/**
+ * JSON encodings of catalog items, produced once per item and spliced into
+ * responses as raw values. Each payload keeps its UTF-8 bytes, so writing an
+ * item into a cart response is a byte copy rather than another pass of bean
+ * serialization. The item handed in only names the row: carts hold detached
+ * copies that can be older than the catalog, so the current item is looked
+ * up through {@link ItemCache} and its payload is cached under id and
+ * version. An outdated copy can therefore neither be encoded nor match a
+ * newer entry. Payloads are also dropped when the item changes.
+ */
+@Component
+public class ItemPayloads {
+
+	private final ObjectMapper objectMapper;
+	private final ItemCache itemCache;
+	private final ItemRepository itemRepository;
+	private final LruCache<Key, RawValue> payloads;
+	private final LongAdder encoded = new LongAdder();
+
+	public ItemPayloads(ObjectMapper objectMapper, ItemCache itemCache, ItemRepository itemRepository,
+			@Value("${ecommerce.cache.item-payload.max-size:10000}") int maxSize,
+			@Value("${ecommerce.cache.item-payload.ttl-seconds:3600}") long ttlSeconds) {
+		this.objectMapper = objectMapper;
+		this.itemCache = itemCache;
+		this.itemRepository = itemRepository;
+		this.payloads = new LruCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+	}
+
+	public RawValue payloadOf(Item item) {
+		Item current = itemCache.findById(item.getId(), itemRepository::findById).orElse(item);
+		return payloads.get(new Key(current.getId(), current.getVersion()), key -> encode(current));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onItemChanged(ItemChangedEvent event) {
+		Item item = event.getItem();
+		payloads.invalidate(new Key(item.getId(), item.getVersion()));
+		if (item.getVersion() != null) {
+			// an update has already moved the row on from the cached version
+			payloads.invalidate(new Key(item.getId(), item.getVersion() - 1));
+		}
+	}
+
+	public long getEncodedCount() {
+		return encoded.sum();
+	}
+
+	public long getHitCount() {
+		return payloads.getHitCount();
+	}
+
+	public int size() {
+		return payloads.size();
+	}
+
+	private RawValue encode(Item item) {
+		try {
+			SerializedString json = new SerializedString(objectMapper.writeValueAsString(Hibernate.unproxy(item)));
+			json.asUnquotedUTF8();
+			encoded.increment();
+			return new RawValue(json);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot encode item " + item.getId(), e);
+		}
+	}
+
+	private static final class Key {
+		private final Long id;
+		private final Long version;
+
+		private Key(Long id, Long version) {
+			this.id = id;
+			this.version = version;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return id.equals(other.id) && Objects.equals(version, other.version);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * id.hashCode() + Objects.hashCode(version);
+		}
+	}
+}
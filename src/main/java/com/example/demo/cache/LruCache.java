@@ -0,0 +1,166 @@
+package com.example.demo.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache with least-recently-used eviction and a fixed
+ * time-to-live per entry. Access is serialized on the cache instance, which
+ * keeps the access-ordered map consistent; loaders run outside the lock so a
+ * slow database call never blocks readers of other keys. Because a load can
+ * overlap an invalidation, keys are hashed onto a fixed set of generation
+ * counters that invalidation bumps, and a loaded value is only cached if its
+ * counter has not moved since the load began.
+ */
+public class LruCache<K, V> {
+
+	private static final int GENERATION_STRIPES = 64;
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LinkedHashMap<K, Entry<V>> entries;
+	private final long[] generations = new long[GENERATION_STRIPES];
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public LruCache(int maxSize, long ttl, TimeUnit unit) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive");
+		}
+		this.maxSize = maxSize;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > LruCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public V get(K key) {
+		long now = System.nanoTime();
+		synchronized (this) {
+			Entry<V> entry = entries.get(key);
+			if (entry != null) {
+				if (entry.expiresAt - now > 0) {
+					hits.increment();
+					return entry.value;
+				}
+				entries.remove(key);
+				evictions.increment();
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Returns the cached value for {@code key}, loading and caching it on a miss.
+	 * Loaders returning {@code null} are not cached, and neither are values
+	 * whose key was invalidated while the loader ran, since they may predate
+	 * the change that caused the invalidation.
+	 */
+	public V get(K key, Function<? super K, ? extends V> loader) {
+		V value = get(key);
+		if (value != null) {
+			return value;
+		}
+		long generation;
+		synchronized (this) {
+			generation = generations[stripe(key)];
+		}
+		value = loader.apply(key);
+		if (value != null) {
+			Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+			synchronized (this) {
+				if (generations[stripe(key)] == generation) {
+					entries.put(key, entry);
+				}
+			}
+		}
+		return value;
+	}
+
+	public void put(K key, V value) {
+		Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+		synchronized (this) {
+			entries.put(key, entry);
+		}
+	}
+
+	public synchronized void invalidate(K key) {
+		generations[stripe(key)]++;
+		entries.remove(key);
+	}
+
+	public synchronized void invalidateAll() {
+		for (int i = 0; i < generations.length; i++) {
+			generations[i]++;
+		}
+		entries.clear();
+	}
+
+	/**
+	 * Drops every entry whose time-to-live has elapsed.
+	 */
+	public synchronized void evictExpired() {
+		long now = System.nanoTime();
+		for (Iterator<Entry<V>> it = entries.values().iterator(); it.hasNext();) {
+			if (it.next().expiresAt - now <= 0) {
+				it.remove();
+				evictions.increment();
+			}
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0.0 : (double) hitCount / total;
+	}
+
+	private static int stripe(Object key) {
+		int hash = key.hashCode();
+		return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+	}
+
+	private static final class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.example.demo.cache;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+/**
+ * Points Hibernate's JCache region factory at the Ehcache configuration that
+ * sizes the second-level cache regions. Hibernate only accepts a URI it can
+ * open directly, so the class path resource is resolved here.
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+
+	@Bean
+	public HibernatePropertiesCustomizer jcacheConfigurationCustomizer(
+			@Value("${ecommerce.cache.second-level.config:classpath:ehcache.xml}") Resource config) {
+		return properties -> {
+			try {
+				properties.put("hibernate.javax.cache.uri", config.getURI().toString());
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot resolve second-level cache configuration " + config, e);
+			}
+		};
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.demo.cart;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CartBusyException extends RuntimeException {
+
+	public CartBusyException(String username) {
+		super("Cart is being modified concurrently for " + username);
+	}
+}
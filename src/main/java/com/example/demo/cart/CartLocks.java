@@ -0,0 +1,52 @@
+package com.example.demo.cart;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes read-modify-write cycles on a user's cart. Usernames are hashed
+ * onto a fixed set of lock stripes, so memory stays constant however many
+ * users there are while unrelated carts rarely contend.
+ */
+@Component
+public class CartLocks {
+
+	private final ReentrantLock[] stripes;
+	private final long timeoutMillis;
+
+	public CartLocks(@Value("${ecommerce.cart.lock.stripes:256}") int stripes,
+			@Value("${ecommerce.cart.lock.timeout-ms:5000}") long timeoutMillis) {
+		this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+		for (int i = 0; i < this.stripes.length; i++) {
+			this.stripes[i] = new ReentrantLock();
+		}
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	public <T> T withLock(String username, Supplier<T> action) {
+		ReentrantLock lock = stripeFor(username);
+		try {
+			if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new CartBusyException(username);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CartBusyException(username);
+		}
+		try {
+			return action.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private ReentrantLock stripeFor(String username) {
+		int hash = username == null ? 0 : username.hashCode();
+		hash ^= (hash >>> 16);
+		return stripes[hash & (stripes.length - 1)];
+	}
+}
@@ -0,0 +1,21 @@
+package com.example.demo.cart;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+
+/**
+ * Owns the authoritative copy of users' carts. Callers mutate the cart
+ * returned by {@link #getCart(User)} while holding the user's
+ * {@link CartLocks} stripe and hand it back through {@link #save(Cart)}.
+ */
+public interface CartStore {
+
+	Cart getCart(User user);
+
+	void save(Cart cart);
+
+	/**
+	 * Makes sure every change to the user's cart has reached the database.
+	 */
+	void flush(User user);
+}
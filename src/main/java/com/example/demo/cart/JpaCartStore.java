@@ -0,0 +1,40 @@
+package com.example.demo.cart;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+
+/**
+ * Default store: every change is written through the JPA repository before
+ * the request completes.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.cart.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+	private final CartRepository cartRepository;
+
+	@Autowired
+	public JpaCartStore(CartRepository cartRepository) {
+		this.cartRepository = cartRepository;
+	}
+
+	@Override
+	public Cart getCart(User user) {
+		return (Cart) Hibernate.unproxy(user.getCart());
+	}
+
+	@Override
+	public void save(Cart cart) {
+		cartRepository.save(cart);
+	}
+
+	@Override
+	public void flush(User user) {
+	}
+}
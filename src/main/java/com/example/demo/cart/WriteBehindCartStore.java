@@ -0,0 +1,287 @@
+package com.example.demo.cart;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.User;
+
+/**
+ * Keeps active carts in memory as the source of truth and writes changed
+ * carts to the database in JDBC batches from a background thread. A cart is
+ * also written synchronously through {@link #flush(User)} (order submission)
+ * and every pending change is written when the application shuts down. A
+ * cart is marked as in flight before it leaves the dirty set and until its
+ * write has committed or been put back, so a flush never returns while a
+ * background write of the same cart is still open.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore implements CartStore {
+
+	private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+	private static final String UPDATE_CART = "update cart set total = ?, version = version + 1 where id = ?";
+	private static final String DELETE_LINES = "delete from cart_line where cart_id = ?";
+	private static final String INSERT_LINE = "insert into cart_line (id, cart_id, item_id, quantity, unit_price) "
+			+ "values (next value for cart_line_seq, ?, ?, ?, ?)";
+
+	private final Map<Long, Entry> carts = new ConcurrentHashMap<>();
+	private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+	private final Map<Long, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final CartLocks cartLocks;
+	private final int batchSize;
+	private final long idleTimeoutNanos;
+	private final ScheduledExecutorService flusher;
+
+	private final LongAdder flushedCarts = new LongAdder();
+	private final LongAdder failedFlushes = new LongAdder();
+
+	public WriteBehindCartStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, CartLocks cartLocks,
+			@Value("${ecommerce.cart.write-behind.flush-interval-ms:1000}") long flushIntervalMillis,
+			@Value("${ecommerce.cart.write-behind.batch-size:500}") int batchSize,
+			@Value("${ecommerce.cart.write-behind.idle-timeout-seconds:900}") long idleTimeoutSeconds) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.cartLocks = cartLocks;
+		this.batchSize = batchSize;
+		this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "cart-write-behind");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public Cart getCart(User user) {
+		Long cartId = user.getCart().getId();
+		Entry entry = carts.get(cartId);
+		if (entry == null) {
+			entry = carts.computeIfAbsent(cartId, id -> new Entry(user.getUsername(), copyOf(user.getCart(), user)));
+		}
+		entry.lastAccess = System.nanoTime();
+		entry.cart.setUser(user);
+		return entry.cart;
+	}
+
+	@Override
+	public void save(Cart cart) {
+		dirty.add(cart.getId());
+	}
+
+	@Override
+	public void flush(User user) {
+		Long cartId = user.getCart().getId();
+		while (true) {
+			CompletableFuture<Void> pending = inFlight.get(cartId);
+			if (pending != null) {
+				// a failed write has put the cart back into the dirty set before completing
+				pending.handle((result, failure) -> null).join();
+				continue;
+			}
+			CompletableFuture<Void> written = new CompletableFuture<>();
+			if (inFlight.putIfAbsent(cartId, written) != null) {
+				continue;
+			}
+			if (dirty.remove(cartId)) {
+				List<Long> ids = new ArrayList<>(1);
+				ids.add(cartId);
+				write(ids, written);
+			} else {
+				inFlight.remove(cartId, written);
+				written.complete(null);
+			}
+			return;
+		}
+	}
+
+	/**
+	 * Writes every cart changed since the last flush, in batches of the
+	 * configured size, then forgets carts that have been idle too long.
+	 */
+	public void flushAll() {
+		List<Long> batch = new ArrayList<>(batchSize);
+		CompletableFuture<Void> written = new CompletableFuture<>();
+		for (Iterator<Long> it = dirty.iterator(); it.hasNext();) {
+			Long cartId = it.next();
+			if (inFlight.putIfAbsent(cartId, written) != null) {
+				// being flushed for an order; still dirty if it changes again
+				continue;
+			}
+			it.remove();
+			batch.add(cartId);
+			if (batch.size() == batchSize) {
+				write(batch, written);
+				batch = new ArrayList<>(batchSize);
+				written = new CompletableFuture<>();
+			}
+		}
+		if (!batch.isEmpty()) {
+			write(batch, written);
+		}
+		evictIdle();
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		flusher.shutdown();
+		flusher.awaitTermination(30, TimeUnit.SECONDS);
+		flushAll();
+		log.info("Cart write-behind stopped, {} carts flushed in total", flushedCarts.sum());
+	}
+
+	public int getActiveCarts() {
+		return carts.size();
+	}
+
+	public int getPendingCarts() {
+		return dirty.size();
+	}
+
+	public long getFlushedCarts() {
+		return flushedCarts.sum();
+	}
+
+	public long getFailedFlushes() {
+		return failedFlushes.sum();
+	}
+
+	private void flushSafely() {
+		try {
+			flushAll();
+		} catch (RuntimeException e) {
+			log.error("Cart write-behind flush failed, will retry", e);
+		}
+	}
+
+	/**
+	 * Writes {@code cartIds}, which must all be registered in flight under
+	 * {@code written}, and releases them once the outcome is settled.
+	 */
+	private void write(List<Long> cartIds, CompletableFuture<Void> written) {
+		RuntimeException failure = null;
+		try {
+			writeBatch(cartIds);
+		} catch (RuntimeException e) {
+			failedFlushes.increment();
+			dirty.addAll(cartIds);
+			failure = e;
+		}
+		for (Long cartId : cartIds) {
+			inFlight.remove(cartId, written);
+		}
+		if (failure != null) {
+			written.completeExceptionally(failure);
+			throw failure;
+		}
+		written.complete(null);
+	}
+
+	private void writeBatch(List<Long> cartIds) {
+		List<Object[]> cartRows = new ArrayList<>(cartIds.size());
+		List<Object[]> deleteRows = new ArrayList<>(cartIds.size());
+		List<Object[]> lineRows = new ArrayList<>();
+		for (Long cartId : cartIds) {
+			Entry entry = carts.get(cartId);
+			if (entry == null) {
+				continue;
+			}
+			cartLocks.withLock(entry.username, () -> {
+				Cart cart = entry.cart;
+				cartRows.add(new Object[] { cart.getTotal(), cartId });
+				deleteRows.add(new Object[] { cartId });
+				for (CartLine line : cart.getLines()) {
+					lineRows.add(new Object[] { cartId, line.getItem().getId(), line.getQuantity(), line.getUnitPrice() });
+				}
+				return null;
+			});
+		}
+		transactionTemplate.execute(status -> {
+			jdbcTemplate.batchUpdate(DELETE_LINES, deleteRows);
+			jdbcTemplate.batchUpdate(INSERT_LINE, lineRows);
+			jdbcTemplate.batchUpdate(UPDATE_CART, cartRows);
+			return null;
+		});
+		flushedCarts.add(cartRows.size());
+	}
+
+	private void evictIdle() {
+		long now = System.nanoTime();
+		for (Map.Entry<Long, Entry> candidate : carts.entrySet()) {
+			Entry entry = candidate.getValue();
+			if (now - entry.lastAccess > idleTimeoutNanos && !isPending(candidate.getKey())) {
+				cartLocks.withLock(entry.username, () -> {
+					if (!isPending(candidate.getKey())) {
+						carts.remove(candidate.getKey(), entry);
+					}
+					return null;
+				});
+			}
+		}
+	}
+
+	private boolean isPending(Long cartId) {
+		return dirty.contains(cartId) || inFlight.containsKey(cartId);
+	}
+
+	/**
+	 * Detaches the cart from the request's persistence context so later
+	 * flushes of that context never write it behind this store's back.
+	 */
+	private static Cart copyOf(Cart persistent, User user) {
+		Cart cart = new Cart();
+		cart.setId(persistent.getId());
+		cart.setVersion(persistent.getVersion());
+		cart.setUser(user);
+		cart.setTotal(persistent.getTotal() == null ? BigDecimal.ZERO : persistent.getTotal());
+		List<CartLine> lines = new ArrayList<>();
+		if (persistent.getLines() != null) {
+			for (CartLine line : persistent.getLines()) {
+				CartLine copy = new CartLine(cart, line.getItem());
+				copy.setQuantity(line.getQuantity());
+				copy.setUnitPrice(line.getUnitPrice());
+				lines.add(copy);
+			}
+		}
+		cart.setLines(lines);
+		return cart;
+	}
+
+	private static final class Entry {
+		private final String username;
+		private final Cart cart;
+		private volatile long lastAccess = System.nanoTime();
+
+		private Entry(String username, Cart cart) {
+			this.username = username;
+			this.cart = cart;
+		}
+	}
+}
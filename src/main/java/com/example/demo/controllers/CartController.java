@@ -1,77 +1,141 @@
 package com.example.demo.controllers;
 
+import com.example.demo.cache.ItemPayloads;
+import com.example.demo.cart.CartLocks;
+import com.example.demo.cart.CartStore;
+import com.example.demo.identity.UserIdentityIndex;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
-import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartItemChange;
+import com.example.demo.model.requests.ModifyCartBatchRequest;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.responses.CartResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/cart")
 public class CartController {
-	private static Logger log = LoggerFactory.getLogger(UserController.class);
+	private static Logger log = LoggerFactory.getLogger(CartController.class);
 	
 	@Autowired
-	private UserRepository userRepository;
+	private UserIdentityIndex userIdentityIndex;
 	
 	@Autowired
-	private CartRepository cartRepository;
+	private CartStore cartStore;
 	
 	@Autowired
 	private ItemRepository itemRepository;
+
+	@Autowired
+	private CartLocks cartLocks;
+
+	@Autowired
+	private ItemPayloads itemPayloads;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
 	
 	@PostMapping("/addToCart")
-	public ResponseEntity<Cart> addTocart(@RequestBody ModifyCartRequest request) {
-		User user = userRepository.findByUsername(request.getUsername());
-		if(user == null) {
-			log.error("while adding item to cart, username not found.");
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-		}
-		Optional<Item> item = itemRepository.findById(request.getItemId());
-		if(!item.isPresent()) {
-			log.error("while adding item to cart, itemid not found.");
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-		}
-		Cart cart = user.getCart();
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.addItem(item.get()));
-		cartRepository.save(cart);
-		log.info("Item(s) added to cart successfully");
-		return ResponseEntity.ok(cart);
+	public ResponseEntity<CartResponse> addTocart(@RequestBody ModifyCartRequest request) {
+		return cartLocks.withLock(request.getUsername(), () -> {
+			User user = userIdentityIndex.findUser(request.getUsername());
+			if(user == null) {
+				log.error("while adding item to cart, username not found.");
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			Optional<Item> item = itemRepository.findById(request.getItemId());
+			if(!item.isPresent()) {
+				log.error("while adding item to cart, itemid not found.");
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			Cart cart = cartStore.getCart(user);
+			cart.addItem(item.get(), request.getQuantity());
+			cartStore.save(cart);
+			log.info("Item(s) added to cart successfully");
+			return ResponseEntity.ok(CartResponse.of(cart, itemPayloads));
+		});
 	}
 	
 	@PostMapping("/removeFromCart")
-	public ResponseEntity<Cart> removeFromcart(@RequestBody ModifyCartRequest request) {
-		User user = userRepository.findByUsername(request.getUsername());
-		if(user == null) {
-			log.error("while removing item to cart, username not found.");
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-		}
-		Optional<Item> item = itemRepository.findById(request.getItemId());
-		if(!item.isPresent()) {
-			log.error("while removing item to cart, itemid not found.");
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-		}
-		Cart cart = user.getCart();
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.removeItem(item.get()));
-		cartRepository.save(cart);
-		log.info("removed from cart successfully");
-		return ResponseEntity.ok(cart);
+	public ResponseEntity<CartResponse> removeFromcart(@RequestBody ModifyCartRequest request) {
+		return cartLocks.withLock(request.getUsername(), () -> {
+			User user = userIdentityIndex.findUser(request.getUsername());
+			if(user == null) {
+				log.error("while removing item to cart, username not found.");
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			Optional<Item> item = itemRepository.findById(request.getItemId());
+			if(!item.isPresent()) {
+				log.error("while removing item to cart, itemid not found.");
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			Cart cart = cartStore.getCart(user);
+			cart.removeItem(item.get(), request.getQuantity());
+			cartStore.save(cart);
+			log.info("removed from cart successfully");
+			return ResponseEntity.ok(CartResponse.of(cart, itemPayloads));
+		});
+	}
+
+	@PostMapping("/modify")
+	public ResponseEntity<CartResponse> modifyCart(@RequestBody ModifyCartBatchRequest request) {
+		// the item load, the changes and the save commit together, under the cart lock
+		return cartLocks.withLock(request.getUsername(), () -> transactionTemplate.execute(status -> {
+			User user = userIdentityIndex.findUser(request.getUsername());
+			if(user == null) {
+				log.error("while modifying cart, username not found.");
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			List<CartItemChange> changes = request.getChanges() == null ? Collections.emptyList() : request.getChanges();
+			Set<Long> itemIds = changes.stream().map(CartItemChange::getItemId).collect(Collectors.toSet());
+			Map<Long, Item> items = new HashMap<>();
+			if (!itemIds.isEmpty()) {
+				itemRepository.findAllById(itemIds).forEach(item -> items.put(item.getId(), item));
+			}
+			if (items.size() != itemIds.size()) {
+				log.error("while modifying cart, itemid not found.");
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			Cart cart = cartStore.getCart(user);
+			for (CartItemChange change : changes) {
+				Item item = items.get(change.getItemId());
+				if (change.getQuantity() > 0) {
+					cart.addItem(item, change.getQuantity());
+				} else {
+					cart.removeItem(item, -change.getQuantity());
+				}
+			}
+			cartStore.save(cart);
+			log.info("cart modified successfully");
+			return ResponseEntity.ok(CartResponse.of(cart, itemPayloads));
+		}));
+	}
+
+	@ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+	public ResponseEntity<CartResponse> onConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+		log.error("cart was updated concurrently, rejecting stale write.");
+		return ResponseEntity.status(HttpStatus.CONFLICT).build();
 	}
 		
 }
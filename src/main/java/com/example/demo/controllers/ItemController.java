@@ -1,16 +1,31 @@
 package com.example.demo.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.cache.ItemCache;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.ItemStreamRepository;
+import com.example.demo.model.responses.ItemPage;
+import com.example.demo.search.ItemSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController
 @RequestMapping("/api/item")
@@ -18,20 +33,79 @@ public class ItemController {
 
 	@Autowired
 	private ItemRepository itemRepository;
+
+	@Autowired
+	private ItemStreamRepository itemStreamRepository;
+
+	@Autowired
+	private ItemCache itemCache;
+
+	@Autowired
+	private ItemSearchIndex itemSearchIndex;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${ecommerce.item.page.max-size:500}")
+	private int maxPageSize;
 	
 	@GetMapping
 	public ResponseEntity<List<Item>> getItems() {
-		return ResponseEntity.ok(itemRepository.findAll());
+		return ResponseEntity.ok(itemCache.findAll(itemRepository::findAll));
+	}
+
+	@GetMapping("/page")
+	public ResponseEntity<ItemPage> getItemPage(@RequestParam(required = false) Long after,
+			@RequestParam(defaultValue = "50") int size) {
+		if (size <= 0) {
+			return ResponseEntity.badRequest().build();
+		}
+		int limit = Math.min(size, maxPageSize);
+		List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after,
+				PageRequest.of(0, limit + 1));
+		if (items.size() <= limit) {
+			return ResponseEntity.ok(new ItemPage(items, null));
+		}
+		List<Item> page = items.subList(0, limit);
+		return ResponseEntity.ok(new ItemPage(page, page.get(limit - 1).getId()));
+	}
+
+	@GetMapping("/stream")
+	public ResponseEntity<StreamingResponseBody> streamItems() {
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.writeStartArray();
+				itemStreamRepository.forEach(item -> {
+					try {
+						writer.writeValue(generator, item);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				generator.writeEndArray();
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(body);
+	}
+	
+	@GetMapping("/search")
+	public ResponseEntity<List<Item>> searchItems(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "20") int limit) {
+		List<Item> items = itemSearchIndex.search(query, Math.min(limit, maxPageSize));
+		return items.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(items);
 	}
 	
 	@GetMapping("/{id}")
 	public ResponseEntity<Item> getItemById(@PathVariable Long id) {
-		return ResponseEntity.of(itemRepository.findById(id));
+		return ResponseEntity.of(itemCache.findById(id, itemRepository::findById));
 	}
 	
 	@GetMapping("/name/{name}")
 	public ResponseEntity<List<Item>> getItemsByName(@PathVariable String name) {
-		List<Item> items = itemRepository.findByName(name);
+		List<Item> items = itemCache.findByName(name, itemRepository::findByName);
 		return items == null || items.isEmpty() ? ResponseEntity.notFound().build()
 				: ResponseEntity.ok(items);
 			
@@ -1,12 +1,23 @@
 package com.example.demo.controllers;
 
+import com.example.demo.cart.CartLocks;
+import com.example.demo.cart.CartStore;
+import com.example.demo.identity.UserIdentityIndex;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import com.example.demo.model.persistence.repositories.OrderRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderHistoryPage;
+import com.example.demo.model.responses.OrderReceipt;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.order.OrderSubmissionQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,36 +26,111 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/order")
 public class OrderController {
-	private static Logger log = LoggerFactory.getLogger(UserController.class);
+	private static Logger log = LoggerFactory.getLogger(OrderController.class);
 	
 	@Autowired
-	private UserRepository userRepository;
+	private UserIdentityIndex userIdentityIndex;
 	
 	@Autowired
 	private OrderRepository orderRepository;
 
+	@Autowired
+	private CartStore cartStore;
+
+	@Autowired
+	private CartLocks cartLocks;
+
+	@Autowired
+	private OrderSubmissionQueue orderSubmissionQueue;
+
+	@Value("${ecommerce.order.history.max-page-size:100}")
+	private int maxPageSize;
+
 
 	@PostMapping("/submit/{username}")
-	public ResponseEntity<UserOrder> submit(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
+	public ResponseEntity<OrderResponse> submit(@PathVariable String username) {
+		User user = userIdentityIndex.findUser(username);
 		if(user == null) {
 			log.error("username not found during order submit");
 			return ResponseEntity.notFound().build();
 		}
-		UserOrder order = UserOrder.createFromCart(user.getCart());
-		orderRepository.save(order);
+		UserOrder order = cartLocks.withLock(username, () -> {
+			cartStore.flush(user);
+			return UserOrder.createFromCart(cartStore.getCart(user));
+		});
+		orderRepository.saveWithLines(order);
 		log.info("order submitted successfully");
-		return ResponseEntity.ok(order);
+		return ResponseEntity.ok(OrderResponse.of(order));
+	}
+
+	@PostMapping("/submitAsync/{username}")
+	public ResponseEntity<OrderReceipt> submitAsync(@PathVariable String username) {
+		User user = userIdentityIndex.findUser(username);
+		if(user == null) {
+			log.error("username not found during async order submit");
+			return ResponseEntity.notFound().build();
+		}
+		UserOrder order = cartLocks.withLock(username, () -> {
+			cartStore.flush(user);
+			return UserOrder.createFromCart(cartStore.getCart(user));
+		});
+		if (!orderSubmissionQueue.offer(order)) {
+			log.error("order queue full, rejecting async order submit");
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+		}
+		log.info("order accepted for asynchronous submit");
+		return ResponseEntity.accepted().body(new OrderReceipt(order.getReference(), order.getTotal()));
 	}
 	
 	@GetMapping("/history/{username}")
-	public ResponseEntity<List<UserOrder>> getOrdersForUser(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
+	public ResponseEntity<List<OrderResponse>> getOrdersForUser(@PathVariable String username) {
+		User user = userIdentityIndex.findUser(username);
 		if(user == null) {
 			log.error("username not found, when retrieving history");
 			return ResponseEntity.notFound().build();
 		}
-		log.info("order history retrieved successfully for: " +username);
-		return ResponseEntity.ok(orderRepository.findByUser(user));
+		log.info("order history retrieved successfully for: {}", username);
+		return ResponseEntity.ok(orderRepository.findResponsesByUser(user));
+	}
+
+	@GetMapping("/history/{username}/summary")
+	public ResponseEntity<OrderHistoryPage> getOrderSummariesForUser(@PathVariable String username,
+			@RequestParam(required = false) Long before, @RequestParam(defaultValue = "20") int size) {
+		if (size <= 0) {
+			return ResponseEntity.badRequest().build();
+		}
+		User user = userIdentityIndex.findUser(username);
+		if(user == null) {
+			log.error("username not found, when retrieving order summaries");
+			return ResponseEntity.notFound().build();
+		}
+		int limit = Math.min(size, maxPageSize);
+		List<OrderSummary> orders = orderRepository.findSummariesBefore(user,
+				before == null ? Long.MAX_VALUE : before, PageRequest.of(0, limit + 1));
+		if (orders.size() <= limit) {
+			return ResponseEntity.ok(new OrderHistoryPage(orders, null));
+		}
+		List<OrderSummary> page = orders.subList(0, limit);
+		return ResponseEntity.ok(new OrderHistoryPage(page, page.get(limit - 1).getId()));
+	}
+
+	@GetMapping("/history/{username}/reference/{reference}")
+	public ResponseEntity<OrderResponse> getOrderByReference(@PathVariable String username, @PathVariable String reference) {
+		User user = userIdentityIndex.findUser(username);
+		if(user == null) {
+			log.error("username not found, when retrieving order by reference");
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.of(orderRepository.findResponseByReferenceAndUser(reference, user));
+	}
+
+	@GetMapping("/history/{username}/{orderId}")
+	public ResponseEntity<OrderResponse> getOrderForUser(@PathVariable String username, @PathVariable Long orderId) {
+		User user = userIdentityIndex.findUser(username);
+		if(user == null) {
+			log.error("username not found, when retrieving order");
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.of(orderRepository.findResponseByIdAndUser(orderId, user));
 	}
 }
@@ -1,13 +1,18 @@
 package com.example.demo.controllers;
 
+import com.example.demo.identity.UserIdentityIndex;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.UserResponse;
+import com.example.demo.security.PasswordHashingBusyException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -27,34 +32,44 @@ public class UserController {
 	@Autowired
 	private BCryptPasswordEncoder bCryptPasswordEncoder;
 
+	@Autowired
+	private UserIdentityIndex userIdentityIndex;
+
 	@GetMapping("/id/{id}")
-	public ResponseEntity<User> findById(@PathVariable Long id) {
-		return ResponseEntity.of(userRepository.findById(id));
+	public ResponseEntity<UserResponse> findById(@PathVariable Long id) {
+		return ResponseEntity.of(userRepository.findById(id).map(UserResponse::of));
 	}
 	
 	@GetMapping("/{username}")
-	public ResponseEntity<User> findByUserName(@PathVariable String username) {
+	public ResponseEntity<UserResponse> findByUserName(@PathVariable String username) {
 		User user = userRepository.findByUsername(username);
-		return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(user);
+		return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(UserResponse.of(user));
 	}
 	
 	@PostMapping("/create")
-	public ResponseEntity<User> createUser(@RequestBody CreateUserRequest createUserRequest) {
+	public ResponseEntity<UserResponse> createUser(@RequestBody CreateUserRequest createUserRequest) {
 		log.info("Creating user {}", createUserRequest.getUsername());
 		User user = new User();
 		user.setUsername(createUserRequest.getUsername());
-		Cart cart = new Cart();
-		cartRepository.save(cart);
-		user.setCart(cart);
 		if (createUserRequest.getPassword().length() < 7
 				|| !createUserRequest.getPassword().equals(createUserRequest.getConfirmPassword())) {
 			log.error("Error with user password. Cannot create user {}", createUserRequest.getUsername());
 			return ResponseEntity.badRequest().build();
 		}
 		user.setPassword(bCryptPasswordEncoder.encode(createUserRequest.getPassword()));
+		Cart cart = new Cart();
+		cartRepository.save(cart);
+		user.setCart(cart);
 		userRepository.save(user);
+		userIdentityIndex.register(user);
 		log.info("User created successfully");
-		return ResponseEntity.ok(user);
+		return ResponseEntity.ok(UserResponse.of(user));
+	}
+
+	@ExceptionHandler(PasswordHashingBusyException.class)
+	public ResponseEntity<UserResponse> onPasswordHashingBusy(PasswordHashingBusyException e) {
+		log.error("Rejecting user creation: {}", e.getMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
 	}
 	
 }
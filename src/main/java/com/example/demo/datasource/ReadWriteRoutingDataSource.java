@@ -0,0 +1,50 @@
+package com.example.demo.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything
+ * else, including work outside a transaction, to the primary. It must sit
+ * behind a lazy connection proxy: the read-only flag is only bound after the
+ * transaction manager has asked for its connection.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	public enum Route {
+		PRIMARY, REPLICA
+	}
+
+	private final DataSource primary;
+	private final DataSource replica;
+
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+		this.primary = primary;
+		this.replica = replica;
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(Route.PRIMARY, primary);
+		targets.put(Route.REPLICA, replica);
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	public DataSource getPrimary() {
+		return primary;
+	}
+
+	public DataSource getReplica() {
+		return replica;
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+				&& TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.demo.datasource;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Splits reads from writes when the {@code replica} profile is active. The
+ * application data source routes read-only transactions to a separate pool
+ * on the replica database and all other work to the primary pool. Both pools
+ * are built here rather than exposed as beans so that the datasource
+ * initializer only ever sees the routing data source.
+ */
+@Configuration
+@Profile("replica")
+public class ReplicaDataSourceConfiguration {
+
+	private HikariDataSource primary;
+	private HikariDataSource replica;
+
+	@Bean
+	@ConfigurationProperties("ecommerce.datasource.replica")
+	public ReplicaProperties replicaProperties() {
+		return new ReplicaProperties();
+	}
+
+	@Bean
+	public DataSource dataSource(DataSourceProperties properties, ReplicaProperties replicaProperties,
+			Environment environment) {
+		Binder binder = Binder.get(environment);
+		primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+		primary.setPoolName("primary");
+		replica = DataSourceBuilder.create().type(HikariDataSource.class)
+				.url(replicaProperties.getUrl())
+				.username(replicaProperties.getUsername())
+				.password(replicaProperties.getPassword())
+				.build();
+		binder.bind("ecommerce.datasource.replica.hikari", Bindable.ofInstance(replica));
+		replica.setPoolName("replica");
+		return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+	}
+
+	@PreDestroy
+	public void close() {
+		if (replica != null) {
+			replica.close();
+		}
+		if (primary != null) {
+			primary.close();
+		}
+	}
+
+	public static class ReplicaProperties {
+
+		private String url;
+		private String username;
+		private String password;
+		private long syncIntervalMs = 1000;
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public void setUsername(String username) {
+			this.username = username;
+		}
+
+		public String getPassword() {
+			return password;
+		}
+
+		public void setPassword(String password) {
+			this.password = password;
+		}
+
+		public long getSyncIntervalMs() {
+			return syncIntervalMs;
+		}
+
+		public void setSyncIntervalMs(long syncIntervalMs) {
+			this.syncIntervalMs = syncIntervalMs;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.example.demo.datasource;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.datasource.ReplicaDataSourceConfiguration.ReplicaProperties;
+
+/**
+ * Stands in for database replication in local runs: copies the primary's
+ * schema and data to the replica once the context is refreshed (before any
+ * startup work reads through the replica), then copies every table
+ * on a fixed delay. Each table is replaced inside one replica transaction, so
+ * readers see either the previous or the new copy, never an empty table. The
+ * replica lags the primary by up to one sync interval.
+ */
+@Component
+@Profile("replica")
+public class ReplicaSync {
+
+	private static final Logger log = LoggerFactory.getLogger(ReplicaSync.class);
+
+	private final JdbcTemplate primary;
+	private final JdbcTemplate replica;
+	private final TransactionTemplate replicaTransaction;
+	private final long intervalMillis;
+	private final ScheduledExecutorService scheduler;
+
+	private volatile List<String> tables = Collections.emptyList();
+	private volatile long lastSyncMillis;
+
+	private final LongAdder syncs = new LongAdder();
+	private final LongAdder failedSyncs = new LongAdder();
+
+	public ReplicaSync(DataSource dataSource, ReplicaProperties properties) throws SQLException {
+		ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+		this.primary = new JdbcTemplate(routing.getPrimary());
+		this.replica = new JdbcTemplate(routing.getReplica());
+		this.replicaTransaction = new TransactionTemplate(new DataSourceTransactionManager(routing.getReplica()));
+		this.intervalMillis = properties.getSyncIntervalMs();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "replica-sync");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@EventListener(ContextRefreshedEvent.class)
+	public void start() {
+		if (syncs.sum() > 0) {
+			return;
+		}
+		copySchema();
+		sync();
+		scheduler.scheduleWithFixedDelay(this::syncSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	/**
+	 * Recreates the primary's tables, sequences and indexes on the replica.
+	 * Foreign keys are left out because tables are refreshed one at a time.
+	 */
+	public synchronized void copySchema() {
+		List<String> statements = primary.queryForList("script nodata nopasswords nosettings", String.class);
+		replica.execute("drop all objects");
+		for (String statement : statements) {
+			String upper = statement.toUpperCase(Locale.ROOT);
+			if (upper.startsWith("--") || upper.startsWith("CREATE USER") || upper.contains("FOREIGN KEY")) {
+				continue;
+			}
+			replica.execute(statement);
+		}
+		tables = primary.queryForList("select table_name from information_schema.tables "
+				+ "where table_schema = 'PUBLIC' and table_type = 'TABLE'", String.class);
+		log.info("Copied schema of {} tables to the replica", tables.size());
+	}
+
+	/**
+	 * Copies the current contents of every table from the primary.
+	 */
+	public synchronized void sync() {
+		long start = System.nanoTime();
+		for (String table : tables) {
+			copyTable(table);
+		}
+		lastSyncMillis = System.currentTimeMillis();
+		syncs.increment();
+		log.debug("Synced {} tables to the replica in {} ms", tables.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	public long getSyncCount() {
+		return syncs.sum();
+	}
+
+	public long getFailedSyncCount() {
+		return failedSyncs.sum();
+	}
+
+	public long getLagMillis() {
+		return lastSyncMillis == 0 ? -1 : System.currentTimeMillis() - lastSyncMillis;
+	}
+
+	private void syncSafely() {
+		try {
+			sync();
+		} catch (RuntimeException e) {
+			failedSyncs.increment();
+			log.error("Replica sync failed", e);
+		}
+	}
+
+	private void copyTable(String table) {
+		List<String> columns = new ArrayList<>();
+		List<Object[]> rows = primary.query("select * from \"" + table + "\"", rs -> {
+			ResultSetMetaData meta = rs.getMetaData();
+			int count = meta.getColumnCount();
+			for (int i = 1; i <= count; i++) {
+				columns.add('"' + meta.getColumnName(i) + '"');
+			}
+			List<Object[]> result = new ArrayList<>();
+			while (rs.next()) {
+				Object[] row = new Object[count];
+				for (int i = 0; i < count; i++) {
+					row[i] = rs.getObject(i + 1);
+				}
+				result.add(row);
+			}
+			return result;
+		});
+		String insert = "insert into \"" + table + "\" (" + String.join(", ", columns) + ") values ("
+				+ String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+		replicaTransaction.execute(status -> {
+			replica.update("delete from \"" + table + "\"");
+			if (!rows.isEmpty()) {
+				replica.batchUpdate(insert, rows);
+			}
+			return null;
+		});
+	}
+}
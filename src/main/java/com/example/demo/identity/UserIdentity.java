@@ -0,0 +1,43 @@
+package com.example.demo.identity;
+
+import com.example.demo.model.persistence.User;
+
+/**
+ * The few columns of a user needed to authenticate a request and find its
+ * cart and orders.
+ */
+public final class UserIdentity {
+
+	private final long userId;
+	private final String username;
+	private final Long cartId;
+	private final String passwordHash;
+
+	public UserIdentity(long userId, String username, Long cartId, String passwordHash) {
+		this.userId = userId;
+		this.username = username;
+		this.cartId = cartId;
+		this.passwordHash = passwordHash;
+	}
+
+	public static UserIdentity of(User user) {
+		return new UserIdentity(user.getId(), user.getUsername(),
+				user.getCart() == null ? null : user.getCart().getId(), user.getPassword());
+	}
+
+	public long getUserId() {
+		return userId;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public Long getCartId() {
+		return cartId;
+	}
+
+	public String getPasswordHash() {
+		return passwordHash;
+	}
+}
@@ -0,0 +1,131 @@
+package com.example.demo.identity;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+
+/**
+ * Username to {@link UserIdentity} index that lets requests resolve their
+ * caller without querying the user table. Entries are loaded on first use and
+ * added as soon as a user is created. The index never holds more than the
+ * configured number of entries: once full, arbitrary entries are dropped and
+ * reloaded on their next use, so memory stays bounded however many users
+ * exist.
+ */
+@Component
+public class UserIdentityIndex {
+
+	private final Map<String, UserIdentity> identities = new ConcurrentHashMap<>();
+
+	private final UserRepository userRepository;
+	private final CartRepository cartRepository;
+	private final int maxSize;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public UserIdentityIndex(UserRepository userRepository, CartRepository cartRepository,
+			@Value("${ecommerce.identity.max-size:1000000}") int maxSize) {
+		this.userRepository = userRepository;
+		this.cartRepository = cartRepository;
+		this.maxSize = maxSize;
+	}
+
+	public Optional<UserIdentity> find(String username) {
+		UserIdentity identity = identities.get(username);
+		if (identity != null) {
+			hits.increment();
+			return Optional.of(identity);
+		}
+		misses.increment();
+		User user = userRepository.findByUsername(username);
+		if (user == null) {
+			return Optional.empty();
+		}
+		identity = UserIdentity.of(user);
+		put(identity);
+		return Optional.of(identity);
+	}
+
+	/**
+	 * Returns the user for {@code username}, or {@code null} if there is none.
+	 * On a hit the user is built from the index and its cart is an unloaded
+	 * reference, so no statement runs until the cart itself is read.
+	 */
+	public User findUser(String username) {
+		UserIdentity identity = identities.get(username);
+		if (identity == null) {
+			misses.increment();
+			User user = userRepository.findByUsername(username);
+			if (user != null) {
+				put(UserIdentity.of(user));
+			}
+			return user;
+		}
+		hits.increment();
+		User user = new User();
+		user.setId(identity.getUserId());
+		user.setUsername(identity.getUsername());
+		user.setPassword(identity.getPasswordHash());
+		if (identity.getCartId() != null) {
+			user.setCart(cartRepository.getOne(identity.getCartId()));
+		}
+		return user;
+	}
+
+	public void register(User user) {
+		put(UserIdentity.of(user));
+	}
+
+	public void invalidate(String username) {
+		identities.remove(username);
+	}
+
+	public int size() {
+		return identities.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0.0 : (double) hitCount / total;
+	}
+
+	private void put(UserIdentity identity) {
+		identities.put(identity.getUsername(), identity);
+		if (identities.size() > maxSize) {
+			for (Iterator<String> it = identities.keySet().iterator(); it.hasNext() && identities.size() > maxSize;) {
+				if (!it.next().equals(identity.getUsername())) {
+					it.remove();
+					evictions.increment();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import net.logstash.logback.appender.RingBufferFullException;
+import net.logstash.logback.appender.listener.LoggingEventAppenderListenerImpl;
+
+/**
+ * Counts events the async appenders drop because their ring buffer is full.
+ * They never make the logging thread wait for space, so under a burst it is
+ * these events, not request latency, that give way.
+ */
+public class DroppedEventCounter extends LoggingEventAppenderListenerImpl {
+
+	@Override
+	public void eventAppendFailed(Appender<ILoggingEvent> appender, ILoggingEvent event, Throwable reason) {
+		if (reason instanceof RingBufferFullException) {
+			LogEventCounters.recordDropped();
+		}
+	}
+}
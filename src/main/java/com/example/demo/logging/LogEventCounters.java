@@ -0,0 +1,35 @@
+package com.example.demo.logging;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Events the logging pipeline chose not to write. Logback builds its filters
+ * and listeners itself, outside the application context, so the counts are
+ * kept here for the metrics to read.
+ */
+public final class LogEventCounters {
+
+	private static final LongAdder dropped = new LongAdder();
+	private static final LongAdder sampledOut = new LongAdder();
+
+	private LogEventCounters() {
+	}
+
+	static void recordDropped() {
+		dropped.increment();
+	}
+
+	static void recordSampledOut() {
+		sampledOut.increment();
+	}
+
+	/** Events lost because the async appender's ring buffer was full. */
+	public static long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	/** INFO events left out by {@link SamplingFilter}. */
+	public static long getSampledOutCount() {
+		return sampledOut.sum();
+	}
+}
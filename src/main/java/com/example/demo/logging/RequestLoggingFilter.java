@@ -0,0 +1,101 @@
+package com.example.demo.logging;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Tags every event logged while serving a request with a request id, and
+ * with the user once the token has been verified, then logs one access event
+ * carrying method, path, status and latency as separate fields. The id is
+ * taken from {@code X-Request-Id} when a caller sends a usable one and is
+ * echoed back on the response. Runs first so that the admission and query
+ * statistics filters log under the same id.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+	public static final String REQUEST_ID = "requestId";
+	public static final String USER = "user";
+	public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+	private static final Logger log = LoggerFactory.getLogger(RequestLoggingFilter.class);
+
+	private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+	private final boolean accessLog;
+
+	public RequestLoggingFilter(@Value("${ecommerce.logging.access-log:true}") boolean accessLog) {
+		this.accessLog = accessLog;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String requestId = requestId(request.getHeader(REQUEST_ID_HEADER));
+		MDC.put(REQUEST_ID, requestId);
+		response.setHeader(REQUEST_ID_HEADER, requestId);
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			chain.doFilter(request, response);
+			failed = false;
+		} finally {
+			if (accessLog) {
+				logAccess(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+						System.nanoTime() - start);
+			}
+			MDC.remove(USER);
+			MDC.remove(REQUEST_ID);
+		}
+	}
+
+	private static void logAccess(HttpServletRequest request, int status, long nanos) {
+		long latencyMillis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		if (status >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+			log.warn("{} {} {} {}", keyValue("method", request.getMethod()), keyValue("uri", request.getRequestURI()),
+					keyValue("status", status), keyValue("latency_ms", latencyMillis));
+		} else if (log.isInfoEnabled()) {
+			log.info("{} {} {} {}", keyValue("method", request.getMethod()), keyValue("uri", request.getRequestURI()),
+					keyValue("status", status), keyValue("latency_ms", latencyMillis));
+		}
+	}
+
+	static String requestId(String supplied) {
+		if (supplied != null && !supplied.isEmpty() && supplied.length() <= MAX_REQUEST_ID_LENGTH
+				&& isSafe(supplied)) {
+			return supplied;
+		}
+		// the top bit is set so every id is 16 hex digits
+		return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+	}
+
+	// keeps header values that could forge fields or split lines out of the logs
+	private static boolean isSafe(String requestId) {
+		for (int i = 0; i < requestId.length(); i++) {
+			char c = requestId.charAt(i);
+			if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_'
+					|| c == '.')) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Keeps only a share of the INFO events logged while serving a request.
+ * The decision is taken per request id, not per event, so a request that is
+ * kept is kept whole and the same id is kept or dropped on every node it
+ * passes through. Warnings and errors, and events logged outside a request,
+ * are never sampled.
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+	private static final int BUCKETS = 10_000;
+
+	private int keptBuckets = BUCKETS;
+
+	/** Share of requests whose INFO events are written, from 0.0 to 1.0. */
+	public void setInfoRate(double infoRate) {
+		if (infoRate < 0.0 || infoRate > 1.0) {
+			throw new IllegalArgumentException("INFO sample rate must be between 0 and 1, was " + infoRate);
+		}
+		this.keptBuckets = (int) Math.round(infoRate * BUCKETS);
+	}
+
+	@Override
+	public FilterReply decide(ILoggingEvent event) {
+		if (keptBuckets == BUCKETS || event.getLevel() != Level.INFO) {
+			return FilterReply.NEUTRAL;
+		}
+		String requestId = event.getMDCPropertyMap().get(RequestLoggingFilter.REQUEST_ID);
+		if (requestId == null || isKept(requestId)) {
+			return FilterReply.NEUTRAL;
+		}
+		LogEventCounters.recordSampledOut();
+		return FilterReply.DENY;
+	}
+
+	boolean isKept(String requestId) {
+		return Math.floorMod(requestId.hashCode(), BUCKETS) < keptBuckets;
+	}
+}
@@ -0,0 +1,166 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.admission.AdmissionFilter;
+import com.example.demo.admission.ConnectionPoolMonitor;
+import com.example.demo.admission.Priority;
+import com.example.demo.cache.ItemCache;
+import com.example.demo.cache.ItemPayloads;
+import com.example.demo.cart.WriteBehindCartStore;
+import com.example.demo.identity.UserIdentityIndex;
+import com.example.demo.logging.LogEventCounters;
+import com.example.demo.order.OrderSubmissionQueue;
+import com.example.demo.querystats.QueryStatsRecorder;
+import com.example.demo.security.BoundedBCryptPasswordEncoder;
+import com.example.demo.security.CachingTokenVerifier;
+import com.example.demo.security.RateLimiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes the counters the application already keeps as meters: caches,
+ * rate limits, admission, queue depths, SQL statement totals and dropped or
+ * sampled-out log events. Nothing is counted twice: every meter reads the
+ * component's own counter when it is scraped, so the request path pays
+ * nothing for them. Caches follow Micrometer's cache naming
+ * ({@code cache.gets}, {@code cache.size}, {@code cache.evictions}) tagged by
+ * cache name. This is not a {@code MeterBinder} bean: the registry is
+ * created while the connection pool is wired, and binders are resolved along
+ * with it, before components such as the admission filter can exist.
+ */
+@Component
+public class ApplicationMetrics {
+
+	private final MeterRegistry registry;
+	private final ItemCache itemCache;
+	private final ItemPayloads itemPayloads;
+	private final CachingTokenVerifier tokenVerifier;
+	private final UserIdentityIndex identityIndex;
+	private final RateLimiter rateLimiter;
+	private final AdmissionFilter admissionFilter;
+	private final ConnectionPoolMonitor poolMonitor;
+	private final OrderSubmissionQueue orderQueue;
+	private final QueryStatsRecorder queryStats;
+	private final BCryptPasswordEncoder passwordEncoder;
+	private final ObjectProvider<WriteBehindCartStore> cartStore;
+
+	public ApplicationMetrics(MeterRegistry registry, ItemCache itemCache, ItemPayloads itemPayloads,
+			CachingTokenVerifier tokenVerifier, UserIdentityIndex identityIndex, RateLimiter rateLimiter,
+			AdmissionFilter admissionFilter, ConnectionPoolMonitor poolMonitor, OrderSubmissionQueue orderQueue,
+			QueryStatsRecorder queryStats, BCryptPasswordEncoder passwordEncoder,
+			ObjectProvider<WriteBehindCartStore> cartStore) {
+		this.registry = registry;
+		this.itemCache = itemCache;
+		this.itemPayloads = itemPayloads;
+		this.tokenVerifier = tokenVerifier;
+		this.identityIndex = identityIndex;
+		this.rateLimiter = rateLimiter;
+		this.admissionFilter = admissionFilter;
+		this.poolMonitor = poolMonitor;
+		this.orderQueue = orderQueue;
+		this.queryStats = queryStats;
+		this.passwordEncoder = passwordEncoder;
+		this.cartStore = cartStore;
+	}
+
+	@PostConstruct
+	public void bind() {
+		bindCache(registry, "item", itemCache, ItemCache::getHitCount, ItemCache::getMissCount, ItemCache::size);
+		FunctionCounter.builder("cache.evictions", itemCache, ItemCache::getEvictionCount)
+				.tag("cache", "item").register(registry);
+		Gauge.builder("cache.hit.ratio", itemCache, ItemCache::getHitRate)
+				.tag("cache", "item").register(registry);
+		bindCache(registry, "item-payload", itemPayloads, ItemPayloads::getHitCount, ItemPayloads::getEncodedCount,
+				ItemPayloads::size);
+		bindCache(registry, "token", tokenVerifier, CachingTokenVerifier::getHitCount,
+				CachingTokenVerifier::getMissCount, CachingTokenVerifier::size);
+		bindCache(registry, "user-identity", identityIndex, UserIdentityIndex::getHitCount,
+				UserIdentityIndex::getMissCount, UserIdentityIndex::size);
+		FunctionCounter.builder("cache.evictions", identityIndex, UserIdentityIndex::getEvictionCount)
+				.tag("cache", "user-identity").register(registry);
+		Gauge.builder("cache.hit.ratio", identityIndex, UserIdentityIndex::getHitRate)
+				.tag("cache", "user-identity").register(registry);
+
+		FunctionCounter.builder("ratelimit.requests", rateLimiter, RateLimiter::getAllowedCount)
+				.tag("result", "allowed").register(registry);
+		FunctionCounter.builder("ratelimit.requests", rateLimiter, RateLimiter::getLimitedCount)
+				.tag("result", "limited").register(registry);
+		Gauge.builder("ratelimit.buckets", rateLimiter, RateLimiter::getBucketCount).register(registry);
+
+		for (Priority priority : Priority.values()) {
+			String tag = priority.name().toLowerCase();
+			FunctionCounter.builder("admission.requests", admissionFilter, filter -> filter.getAdmittedCount(priority))
+					.tags("priority", tag, "result", "admitted").register(registry);
+			FunctionCounter.builder("admission.requests", admissionFilter, filter -> filter.getShedCount(priority))
+					.tags("priority", tag, "result", "shed").register(registry);
+		}
+		Gauge.builder("admission.pool.acquire.recent", poolMonitor, ConnectionPoolMonitor::getRecentAcquireMillis)
+				.description("Moving average of recent connection acquire time")
+				.baseUnit("milliseconds").register(registry);
+
+		Gauge.builder("order.queue.depth", orderQueue, OrderSubmissionQueue::getDepth).register(registry);
+		Gauge.builder("order.queue.parked", orderQueue, OrderSubmissionQueue::getParkedCount).register(registry);
+		Gauge.builder("order.queue.lag", orderQueue, OrderSubmissionQueue::getLagMillis)
+				.baseUnit("milliseconds").register(registry);
+		FunctionCounter.builder("order.queue.orders", orderQueue, OrderSubmissionQueue::getAcceptedCount)
+				.tag("result", "accepted").register(registry);
+		FunctionCounter.builder("order.queue.orders", orderQueue, OrderSubmissionQueue::getRejectedCount)
+				.tag("result", "rejected").register(registry);
+		FunctionCounter.builder("order.queue.orders", orderQueue, OrderSubmissionQueue::getWrittenCount)
+				.tag("result", "written").register(registry);
+		FunctionCounter.builder("order.queue.orders", orderQueue, OrderSubmissionQueue::getFailedCount)
+				.tag("result", "failed").register(registry);
+		FunctionCounter.builder("order.queue.orders", orderQueue, OrderSubmissionQueue::getDeadLetterCount)
+				.tag("result", "dead-lettered").register(registry);
+
+		FunctionTimer.builder("jdbc.requests", queryStats, QueryStatsRecorder::getRequestCount,
+				QueryStatsRecorder::getJdbcMillis, TimeUnit.MILLISECONDS)
+				.description("JDBC time per request").register(registry);
+		FunctionCounter.builder("jdbc.statements", queryStats, QueryStatsRecorder::getStatementCount)
+				.register(registry);
+		FunctionCounter.builder("jdbc.rows", queryStats, QueryStatsRecorder::getRowCount).register(registry);
+		FunctionCounter.builder("jdbc.requests.over.budget", queryStats, QueryStatsRecorder::getOverBudgetCount)
+				.register(registry);
+		FunctionCounter.builder("jdbc.statements.repeated", queryStats, QueryStatsRecorder::getRepeatedStatementCount)
+				.register(registry);
+
+		if (passwordEncoder instanceof BoundedBCryptPasswordEncoder) {
+			BoundedBCryptPasswordEncoder bcrypt = (BoundedBCryptPasswordEncoder) passwordEncoder;
+			Gauge.builder("bcrypt.queue.depth", bcrypt, BoundedBCryptPasswordEncoder::getQueueDepth).register(registry);
+			Gauge.builder("bcrypt.active", bcrypt, BoundedBCryptPasswordEncoder::getActiveCount).register(registry);
+			FunctionCounter.builder("bcrypt.rejected", bcrypt, BoundedBCryptPasswordEncoder::getRejectedCount)
+					.register(registry);
+		}
+
+		FunctionCounter.builder("logging.events.dropped", this, metrics -> LogEventCounters.getDroppedCount())
+				.description("Log events dropped because the async appender was full").register(registry);
+		FunctionCounter.builder("logging.events.sampled.out", this, metrics -> LogEventCounters.getSampledOutCount())
+				.description("INFO events left out by request sampling").register(registry);
+
+		WriteBehindCartStore carts = cartStore.getIfAvailable();
+		if (carts != null) {
+			Gauge.builder("cart.write.behind.active", carts, WriteBehindCartStore::getActiveCarts).register(registry);
+			Gauge.builder("cart.write.behind.pending", carts, WriteBehindCartStore::getPendingCarts).register(registry);
+			FunctionCounter.builder("cart.write.behind.failed.flushes", carts, WriteBehindCartStore::getFailedFlushes)
+					.register(registry);
+		}
+	}
+
+	private static <T> void bindCache(MeterRegistry registry, String name, T cache, ToDoubleFunction<T> hits,
+			ToDoubleFunction<T> misses, ToDoubleFunction<T> size) {
+		FunctionCounter.builder("cache.gets", cache, hits).tags("cache", name, "result", "hit").register(registry);
+		FunctionCounter.builder("cache.gets", cache, misses).tags("cache", name, "result", "miss").register(registry);
+		Gauge.builder("cache.size", cache, size).tag("cache", name).register(registry);
+	}
+}
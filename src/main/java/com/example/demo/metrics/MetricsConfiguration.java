@@ -0,0 +1,25 @@
+package com.example.demo.metrics;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Exports the connection pool through Hikari's own Micrometer tracker
+ * ({@code hikaricp.connections.*}). The pool takes a single tracker factory
+ * and {@link com.example.demo.admission.ConnectionPoolMonitor} installs its
+ * own, so this one is published as a bean for the monitor to chain rather than
+ * being bound to the pool directly.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+	@Bean
+	public MetricsTrackerFactory hikariMetricsTrackerFactory(MeterRegistry registry) {
+		return new MicrometerMetricsTrackerFactory(registry);
+	}
+}
@@ -0,0 +1,124 @@
+package com.example.demo.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call on a Spring Data repository or an
+ * {@link org.springframework.stereotype.Repository @Repository} bean as
+ * {@code repository.invocations}, tagged with the repository, the method and
+ * the exception thrown, if any. The timer sits outermost on the existing
+ * proxy, so it includes the transaction and exception translation around the
+ * query. The registry is looked up on first use so that this post-processor
+ * does not create it before the registry's own customizers are in place.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+	static final String METRIC_NAME = "repository.invocations";
+
+	private final ObjectProvider<MeterRegistry> registry;
+	private final boolean enabled;
+
+	public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry,
+			@Value("${ecommerce.metrics.repository.enabled:true}") boolean enabled) {
+		this.registry = registry;
+		this.enabled = enabled;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		String repository = enabled ? repositoryName(bean) : null;
+		if (repository == null) {
+			return bean;
+		}
+		TimingInterceptor interceptor = new TimingInterceptor(repository);
+		if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+			Advised advised = (Advised) bean;
+			Advisor[] advisors = advised.getAdvisors();
+			boolean exposesInvocation = advisors.length > 0 && advisors[0] == ExposeInvocationInterceptor.ADVISOR;
+			advised.addAdvice(exposesInvocation ? 1 : 0, interceptor);
+			return bean;
+		}
+		ProxyFactory proxy = new ProxyFactory(bean);
+		proxy.setProxyTargetClass(true);
+		proxy.addAdvice(interceptor);
+		return proxy.getProxy(ClassUtils.getDefaultClassLoader());
+	}
+
+	private static String repositoryName(Object bean) {
+		if (bean instanceof Repository) {
+			for (Class<?> type : ClassUtils.getAllInterfacesAsSet(bean)) {
+				if (Repository.class.isAssignableFrom(type) && type != Repository.class
+						&& !type.getName().startsWith("org.springframework.")) {
+					return type.getSimpleName();
+				}
+			}
+		}
+		Class<?> target = AopUtils.getTargetClass(bean);
+		if (AnnotatedElementUtils.hasAnnotation(target, org.springframework.stereotype.Repository.class)) {
+			return target.getSimpleName();
+		}
+		return null;
+	}
+
+	private final class TimingInterceptor implements MethodInterceptor {
+
+		private final String repository;
+		private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+		private TimingInterceptor(String repository) {
+			this.repository = repository;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Method method = invocation.getMethod();
+			if (method.getDeclaringClass() == Object.class) {
+				return invocation.proceed();
+			}
+			long start = System.nanoTime();
+			try {
+				Object result = invocation.proceed();
+				Timer timer = timers.get(method);
+				if (timer == null) {
+					timer = timers.computeIfAbsent(method, key -> timer(key, "none"));
+				}
+				timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				return result;
+			} catch (Throwable e) {
+				timer(method, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				throw e;
+			}
+		}
+
+		private Timer timer(Method method, String exception) {
+			return Timer.builder(METRIC_NAME)
+					.description("Time spent in repository methods")
+					.tag("repository", repository)
+					.tag("method", method.getName())
+					.tag("exception", exception)
+					.register(registry.getObject());
+		}
+	}
+}
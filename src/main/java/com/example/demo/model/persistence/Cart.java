@@ -2,20 +2,25 @@ package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
+import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.OrderBy;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
@@ -23,15 +28,19 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class Cart {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+	@SequenceGenerator(name = "cart_seq", sequenceName = "cart_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany
+	@OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
+	@OrderBy("id")
 	@JsonProperty
-	@Column
-    private List<Item> items;
+	private List<CartLine> lines;
+
+	@Transient
+	private Map<Long, CartLine> lineIndex;
 	
 	@OneToOne(mappedBy = "cart")
 	@JsonProperty
@@ -40,6 +49,10 @@ public class Cart {
 	@Column
 	@JsonProperty
 	private BigDecimal total;
+
+	@Version
+	@JsonIgnore
+	private Long version;
 	
 	public BigDecimal getTotal() {
 		return total;
@@ -49,6 +62,14 @@ public class Cart {
 		this.total = total;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public User getUser() {
 		return user;
 	}
@@ -65,33 +86,71 @@ public class Cart {
 		this.id = id;
 	}
 
-	public List<Item> getItems() {
-		return items;
+	public List<CartLine> getLines() {
+		return lines;
 	}
 
-	public void setItems(List<Item> items) {
-		this.items = items;
+	public void setLines(List<CartLine> lines) {
+		this.lines = lines;
+		this.lineIndex = null;
+	}
+
+	public CartLine getLine(Item item) {
+		return lineIndex().get(item.getId());
 	}
 	
 	public void addItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		addItem(item, 1);
+	}
+
+	public void addItem(Item item, int quantity) {
+		if (quantity <= 0) {
+			return;
+		}
+		CartLine line = lineIndex().get(item.getId());
+		if (line == null) {
+			line = new CartLine(this, item);
+			lines.add(line);
+			lineIndex.put(item.getId(), line);
 		}
-		items.add(item);
+		line.setQuantity(line.getQuantity() + quantity);
 		if(total == null) {
 			total = new BigDecimal(0);
 		}
-		total = total.add(item.getPrice());
+		total = total.add(line.getUnitPrice().multiply(BigDecimal.valueOf(quantity)));
 	}
 	
 	public void removeItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		removeItem(item, 1);
+	}
+
+	public void removeItem(Item item, int quantity) {
+		CartLine line = lineIndex().get(item.getId());
+		if (line == null || quantity <= 0) {
+			return;
+		}
+		int removed = Math.min(quantity, line.getQuantity());
+		line.setQuantity(line.getQuantity() - removed);
+		if (line.getQuantity() == 0) {
+			lines.remove(line);
+			lineIndex.remove(item.getId());
 		}
-		items.remove(item);
 		if(total == null) {
 			total = new BigDecimal(0);
 		}
-		total = total.subtract(item.getPrice());
+		total = total.subtract(line.getUnitPrice().multiply(BigDecimal.valueOf(removed)));
+	}
+
+	private Map<Long, CartLine> lineIndex() {
+		if (lines == null) {
+			lines = new ArrayList<>();
+		}
+		if (lineIndex == null) {
+			lineIndex = new HashMap<>();
+			for (CartLine line : lines) {
+				lineIndex.put(line.getItem().getId(), line);
+			}
+		}
+		return lineIndex;
 	}
 }
@@ -2,24 +2,37 @@ package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.demo.model.persistence.listeners.ItemEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
 @Table(name = "item")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(ItemEntityListener.class)
 public class Item {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+	// ids 1 and 2 belong to the rows seeded by data.sql
+	@SequenceGenerator(name = "item_seq", sequenceName = "item_seq", initialValue = 3, allocationSize = 50)
 	@JsonProperty
 	private Long id;
 	
@@ -34,6 +47,10 @@ public class Item {
 	@Column(nullable = false)
 	@JsonProperty
 	private String description;
+
+	@Version
+	@JsonIgnore
+	private Long version;
 	
 	@Override
 	public int hashCode() {
@@ -91,6 +108,14 @@ public class Item {
 	public void setDescription(String description) {
 		this.description = description;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 	
 	
 	
@@ -0,0 +1,131 @@
+package com.example.demo.model.persistence;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One line of a submitted order, frozen at submission time. Name and unit
+ * price are copied from the catalog so history shows what was paid, and rows
+ * are only ever inserted.
+ */
+@Entity
+@Immutable
+@IdClass(OrderLine.Key.class)
+@Table(name = "order_line")
+public class OrderLine {
+
+	@Id
+	@Column(name = "order_id")
+	@JsonIgnore
+	private Long orderId;
+
+	@Id
+	@Column(name = "line_no")
+	@JsonIgnore
+	private int lineNo;
+
+	@Column(name = "item_id", nullable = false)
+	@JsonProperty
+	private Long itemId;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private String name;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private BigDecimal unitPrice;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private int quantity;
+
+	protected OrderLine() {
+	}
+
+	public OrderLine(int lineNo, Long itemId, String name, BigDecimal unitPrice, int quantity) {
+		this.lineNo = lineNo;
+		this.itemId = itemId;
+		this.name = name;
+		this.unitPrice = unitPrice;
+		this.quantity = quantity;
+	}
+
+	public static OrderLine of(int lineNo, CartLine line) {
+		Item item = line.getItem();
+		return new OrderLine(lineNo, item.getId(), item.getName(), line.getUnitPrice(), line.getQuantity());
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public int getLineNo() {
+		return lineNo;
+	}
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public BigDecimal getUnitPrice() {
+		return unitPrice;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public BigDecimal getSubtotal() {
+		return unitPrice.multiply(BigDecimal.valueOf(quantity));
+	}
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Long orderId;
+		private int lineNo;
+
+		public Key() {
+		}
+
+		public Key(Long orderId, int lineNo) {
+			this.orderId = orderId;
+			this.lineNo = lineNo;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return lineNo == other.lineNo && Objects.equals(orderId, other.orderId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(orderId, lineNo);
+		}
+	}
+}
@@ -1,19 +1,21 @@
 package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
-import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -23,15 +25,17 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class UserOrder {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_order_seq")
+	@SequenceGenerator(name = "user_order_seq", sequenceName = "user_order_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany(cascade = CascadeType.ALL)
+	@OneToMany
+	@JoinColumn(name = "order_id", insertable = false, updatable = false)
+	@OrderBy("lineNo")
 	@JsonProperty
-	@Column
-    private List<Item> items;
+	private List<OrderLine> lines;
 	
 	@ManyToOne
 	@JoinColumn(name="user_id", nullable = false, referencedColumnName = "id")
@@ -42,6 +46,14 @@ public class UserOrder {
 	@Column
 	private BigDecimal total;
 
+	@JsonProperty
+	@Column
+	private Instant createdAt;
+
+	@JsonProperty
+	@Column(nullable = false, unique = true, length = 36)
+	private String reference;
+
 	public Long getId() {
 		return id;
 	}
@@ -50,12 +62,12 @@ public class UserOrder {
 		this.id = id;
 	}
 
-	public List<Item> getItems() {
-		return items;
+	public List<OrderLine> getLines() {
+		return lines;
 	}
 
-	public void setItems(List<Item> items) {
-		this.items = items;
+	public void setLines(List<OrderLine> lines) {
+		this.lines = lines;
 	}
 
 	public User getUser() {
@@ -74,11 +86,35 @@ public class UserOrder {
 		this.total = total;
 	}
 
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public void setReference(String reference) {
+		this.reference = reference;
+	}
+
 	public static UserOrder createFromCart(Cart cart) {
 		UserOrder order = new UserOrder();
-		order.setItems(cart.getItems().stream().collect(Collectors.toList()));
+		List<OrderLine> lines = new ArrayList<>();
+		if (cart.getLines() != null) {
+			for (CartLine line : cart.getLines()) {
+				lines.add(OrderLine.of(lines.size() + 1, line));
+			}
+		}
+		order.setLines(lines);
 		order.setTotal(cart.getTotal());
 		order.setUser(cart.getUser());
+		order.setCreatedAt(Instant.now());
+		order.setReference(UUID.randomUUID().toString());
 		return order;
 	}
 	
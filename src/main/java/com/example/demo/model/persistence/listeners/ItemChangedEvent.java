@@ -0,0 +1,30 @@
+package com.example.demo.model.persistence.listeners;
+
+import com.example.demo.model.persistence.Item;
+
+/**
+ * Published whenever an {@link Item} row is inserted, updated or deleted so
+ * that in-memory views of the catalog can drop or refresh their copy.
+ */
+public class ItemChangedEvent {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+
+	private final Item item;
+	private final Type type;
+
+	public ItemChangedEvent(Item item, Type type) {
+		this.item = item;
+		this.type = type;
+	}
+
+	public Item getItem() {
+		return item;
+	}
+
+	public Type getType() {
+		return type;
+	}
+}
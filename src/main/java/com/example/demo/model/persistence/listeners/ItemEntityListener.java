@@ -0,0 +1,33 @@
+package com.example.demo.model.persistence.listeners;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.Item;
+
+@Component
+public class ItemEntityListener {
+
+	@Autowired
+	private ApplicationEventPublisher publisher;
+
+	@PostPersist
+	public void onCreated(Item item) {
+		publisher.publishEvent(new ItemChangedEvent(item, ItemChangedEvent.Type.CREATED));
+	}
+
+	@PostUpdate
+	public void onUpdated(Item item) {
+		publisher.publishEvent(new ItemChangedEvent(item, ItemChangedEvent.Type.UPDATED));
+	}
+
+	@PostRemove
+	public void onDeleted(Item item) {
+		publisher.publishEvent(new ItemChangedEvent(item, ItemChangedEvent.Type.DELETED));
+	}
+}
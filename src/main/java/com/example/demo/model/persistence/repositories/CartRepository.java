@@ -1,10 +1,14 @@
 package com.example.demo.model.persistence.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.User;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
-	Cart findByUser(User user);
+	// Driven from the user's primary key; the derived query outer-joins from cart and scans it
+	@Query("select u.cart from User u where u = :user")
+	Cart findByUser(@Param("user") User user);
 }
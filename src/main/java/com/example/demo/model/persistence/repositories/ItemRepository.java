@@ -2,11 +2,21 @@ package com.example.demo.model.persistence.repositories;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.model.persistence.Item;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+	@Transactional(readOnly = true)
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	public List<Item> findByName(String name);
 
+	@Transactional(readOnly = true)
+	public List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
 }
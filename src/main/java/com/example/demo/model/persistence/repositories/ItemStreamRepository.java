@@ -0,0 +1,42 @@
+package com.example.demo.model.persistence.repositories;
+
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.Item;
+
+/**
+ * Walks the catalog over a forward-only JDBC cursor so callers can emit items
+ * as they are read instead of materializing the whole table.
+ */
+@Repository
+public class ItemStreamRepository {
+
+	private static final String SELECT_ALL = "select id, name, price, description from item order by id";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ItemStreamRepository(DataSource dataSource,
+			@Value("${ecommerce.item.stream.fetch-size:500}") int fetchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+	}
+
+	@Transactional(readOnly = true)
+	public void forEach(Consumer<Item> consumer) {
+		jdbcTemplate.query(SELECT_ALL, rs -> {
+			Item item = new Item();
+			item.setId(rs.getLong("id"));
+			item.setName(rs.getString("name"));
+			item.setPrice(rs.getBigDecimal("price"));
+			item.setDescription(rs.getString("description"));
+			consumer.accept(item);
+		});
+	}
+}
@@ -1,12 +1,31 @@
 package com.example.demo.model.persistence.repositories;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderSummary;
 
-public interface OrderRepository extends JpaRepository<UserOrder, Long> {
+public interface OrderRepository extends JpaRepository<UserOrder, Long>, OrderRepositoryCustom {
+	@Transactional(readOnly = true)
 	List<UserOrder> findByUser(User user);
+
+	@Transactional(readOnly = true)
+	Optional<UserOrder> findByIdAndUser(Long id, User user);
+
+	@Transactional(readOnly = true)
+	Optional<UserOrder> findByReferenceAndUser(String reference, User user);
+
+	@Transactional(readOnly = true)
+	@Query("select new com.example.demo.model.responses.OrderSummary(o.id, o.total, "
+			+ "(select coalesce(sum(l.quantity), 0) from OrderLine l where l.orderId = o.id), o.createdAt) "
+			+ "from UserOrder o where o.user = :user and o.id < :before order by o.id desc")
+	List<OrderSummary> findSummariesBefore(@Param("user") User user, @Param("before") Long before, Pageable pageable);
 }
@@ -0,0 +1,30 @@
+package com.example.demo.model.persistence.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderResponse;
+
+public interface OrderRepositoryCustom {
+
+	/**
+	 * Inserts the order and then all of its lines with a single JDBC batch.
+	 * Orders are never updated through this method.
+	 */
+	UserOrder saveWithLines(UserOrder order);
+
+	List<UserOrder> saveAllWithLines(List<UserOrder> orders);
+
+	/**
+	 * Responses for every order of the user, oldest first. Orders and their
+	 * lines are read with one projection query each, however many orders there
+	 * are, and no entity is loaded.
+	 */
+	List<OrderResponse> findResponsesByUser(User user);
+
+	Optional<OrderResponse> findResponseByIdAndUser(Long id, User user);
+
+	Optional<OrderResponse> findResponseByReferenceAndUser(String reference, User user);
+}
@@ -0,0 +1,118 @@
+package com.example.demo.model.persistence.repositories;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderLineResponse;
+import com.example.demo.model.responses.OrderResponse;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+	private static final String INSERT_LINE = "insert into order_line (order_id, line_no, item_id, name, unit_price, quantity) "
+			+ "values (?, ?, ?, ?, ?, ?)";
+
+	private static final String SELECT_ORDER = "select new com.example.demo.model.responses.OrderResponse("
+			+ "o.id, o.reference, o.total, o.createdAt) from UserOrder o where o.user = :user";
+
+	private static final String SELECT_LINES = "select new com.example.demo.model.responses.OrderLineResponse("
+			+ "l.orderId, l.itemId, l.name, l.unitPrice, l.quantity) from OrderLine l "
+			+ "where l.orderId in :orderIds order by l.orderId, l.lineNo";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	@Transactional
+	public UserOrder saveWithLines(UserOrder order) {
+		List<UserOrder> orders = new ArrayList<>(1);
+		orders.add(order);
+		saveAllWithLines(orders);
+		return order;
+	}
+
+	@Override
+	@Transactional
+	public List<UserOrder> saveAllWithLines(List<UserOrder> orders) {
+		List<Object[]> rows = new ArrayList<>();
+		for (UserOrder order : orders) {
+			entityManager.persist(order);
+		}
+		entityManager.flush();
+		for (UserOrder order : orders) {
+			if (order.getLines() == null) {
+				continue;
+			}
+			for (OrderLine line : order.getLines()) {
+				rows.add(new Object[] { order.getId(), line.getLineNo(), line.getItemId(), line.getName(),
+						line.getUnitPrice(), line.getQuantity() });
+			}
+		}
+		if (!rows.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_LINE, rows);
+		}
+		return orders;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<OrderResponse> findResponsesByUser(User user) {
+		List<OrderResponse> orders = entityManager.createQuery(SELECT_ORDER + " order by o.id", OrderResponse.class)
+				.setParameter("user", user)
+				.getResultList();
+		return withLines(orders);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<OrderResponse> findResponseByIdAndUser(Long id, User user) {
+		List<OrderResponse> orders = entityManager.createQuery(SELECT_ORDER + " and o.id = :id", OrderResponse.class)
+				.setParameter("user", user)
+				.setParameter("id", id)
+				.getResultList();
+		return withLines(orders).stream().findFirst();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<OrderResponse> findResponseByReferenceAndUser(String reference, User user) {
+		List<OrderResponse> orders = entityManager.createQuery(SELECT_ORDER + " and o.reference = :reference",
+				OrderResponse.class)
+				.setParameter("user", user)
+				.setParameter("reference", reference)
+				.getResultList();
+		return withLines(orders).stream().findFirst();
+	}
+
+	private List<OrderResponse> withLines(List<OrderResponse> orders) {
+		if (orders.isEmpty()) {
+			return orders;
+		}
+		Map<Long, OrderResponse> byId = new HashMap<>();
+		for (OrderResponse order : orders) {
+			byId.put(order.getId(), order);
+		}
+		List<OrderLineResponse> lines = entityManager.createQuery(SELECT_LINES, OrderLineResponse.class)
+				.setParameter("orderIds", byId.keySet())
+				.getResultList();
+		for (OrderLineResponse line : lines) {
+			byId.get(line.getOrderId()).getLines().add(line);
+		}
+		return orders;
+	}
+}
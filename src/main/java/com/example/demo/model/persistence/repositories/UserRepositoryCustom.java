@@ -0,0 +1,12 @@
+package com.example.demo.model.persistence.repositories;
+
+import com.example.demo.model.persistence.User;
+
+public interface UserRepositoryCustom {
+
+	/**
+	 * Looks the user up by its natural id, so a warm second-level cache
+	 * answers without a query.
+	 */
+	User findByUsername(String username);
+}
@@ -0,0 +1,21 @@
+package com.example.demo.model.persistence.repositories;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.User;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional(readOnly = true)
+	public User findByUsername(String username) {
+		return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).load(username);
+	}
+}
@@ -0,0 +1,31 @@
+package com.example.demo.model.requests;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class CartItemChange {
+
+	@JsonProperty
+	private long itemId;
+
+	/**
+	 * Units to add; negative values remove units.
+	 */
+	@JsonProperty
+	private int quantity;
+
+	public long getItemId() {
+		return itemId;
+	}
+
+	public void setItemId(long itemId) {
+		this.itemId = itemId;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+}
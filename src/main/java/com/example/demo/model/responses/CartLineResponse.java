@@ -0,0 +1,45 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+public class CartLineResponse {
+
+	@JsonIgnore
+	private Long itemId;
+
+	@JsonProperty
+	private RawValue item;
+
+	@JsonProperty
+	private int quantity;
+
+	@JsonProperty
+	private BigDecimal unitPrice;
+
+	public CartLineResponse(Long itemId, RawValue item, int quantity, BigDecimal unitPrice) {
+		this.itemId = itemId;
+		this.item = item;
+		this.quantity = quantity;
+		this.unitPrice = unitPrice;
+	}
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public RawValue getItem() {
+		return item;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public BigDecimal getUnitPrice() {
+		return unitPrice;
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.cache.ItemPayloads;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Cart as returned by the API. Items are written from their cached payloads
+ * and the owning user is left out: the caller already named it.
+ */
+public class CartResponse {
+
+	@JsonProperty
+	private Long id;
+
+	@JsonProperty
+	private List<CartLineResponse> lines;
+
+	@JsonProperty
+	private BigDecimal total;
+
+	public CartResponse(Long id, List<CartLineResponse> lines, BigDecimal total) {
+		this.id = id;
+		this.lines = lines;
+		this.total = total;
+	}
+
+	public static CartResponse of(Cart cart, ItemPayloads itemPayloads) {
+		List<CartLineResponse> lines = new ArrayList<>();
+		if (cart.getLines() != null) {
+			for (CartLine line : cart.getLines()) {
+				lines.add(new CartLineResponse(line.getItem().getId(), itemPayloads.payloadOf(line.getItem()),
+						line.getQuantity(), line.getUnitPrice()));
+			}
+		}
+		return new CartResponse(cart.getId(), lines, cart.getTotal());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public List<CartLineResponse> getLines() {
+		return lines;
+	}
+
+	@JsonIgnore
+	public CartLineResponse getLine(Long itemId) {
+		for (CartLineResponse line : lines) {
+			if (line.getItemId().equals(itemId)) {
+				return line;
+			}
+		}
+		return null;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+}
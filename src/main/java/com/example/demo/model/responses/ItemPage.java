@@ -0,0 +1,28 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ItemPage {
+
+	@JsonProperty
+	private List<Item> items;
+
+	@JsonProperty
+	private Long nextCursor;
+
+	public ItemPage(List<Item> items, Long nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<Item> getItems() {
+		return items;
+	}
+
+	public Long getNextCursor() {
+		return nextCursor;
+	}
+}
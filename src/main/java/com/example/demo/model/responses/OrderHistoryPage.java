@@ -0,0 +1,27 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderHistoryPage {
+
+	@JsonProperty
+	private List<OrderSummary> orders;
+
+	@JsonProperty
+	private Long nextCursor;
+
+	public OrderHistoryPage(List<OrderSummary> orders, Long nextCursor) {
+		this.orders = orders;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<OrderSummary> getOrders() {
+		return orders;
+	}
+
+	public Long getNextCursor() {
+		return nextCursor;
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderLineResponse {
+
+	@JsonIgnore
+	private Long orderId;
+
+	@JsonProperty
+	private Long itemId;
+
+	@JsonProperty
+	private String name;
+
+	@JsonProperty
+	private BigDecimal unitPrice;
+
+	@JsonProperty
+	private int quantity;
+
+	public OrderLineResponse(Long orderId, Long itemId, String name, BigDecimal unitPrice, int quantity) {
+		this.orderId = orderId;
+		this.itemId = itemId;
+		this.name = name;
+		this.unitPrice = unitPrice;
+		this.quantity = quantity;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public BigDecimal getUnitPrice() {
+		return unitPrice;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+}
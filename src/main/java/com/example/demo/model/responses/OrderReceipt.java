@@ -0,0 +1,27 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderReceipt {
+
+	@JsonProperty
+	private String reference;
+
+	@JsonProperty
+	private BigDecimal total;
+
+	public OrderReceipt(String reference, BigDecimal total) {
+		this.reference = reference;
+		this.total = total;
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.UserOrder;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Submitted order as returned by the API. Lines carry the name and price
+ * frozen at submission, so no catalog item is loaded to write one.
+ */
+public class OrderResponse {
+
+	@JsonProperty
+	private Long id;
+
+	@JsonProperty
+	private String reference;
+
+	@JsonProperty
+	private BigDecimal total;
+
+	@JsonProperty
+	private Instant createdAt;
+
+	@JsonProperty
+	private List<OrderLineResponse> lines = new ArrayList<>();
+
+	public OrderResponse(Long id, String reference, BigDecimal total, Instant createdAt) {
+		this.id = id;
+		this.reference = reference;
+		this.total = total;
+		this.createdAt = createdAt;
+	}
+
+	public static OrderResponse of(UserOrder order) {
+		OrderResponse response = new OrderResponse(order.getId(), order.getReference(), order.getTotal(),
+				order.getCreatedAt());
+		if (order.getLines() != null) {
+			for (OrderLine line : order.getLines()) {
+				response.lines.add(new OrderLineResponse(order.getId(), line.getItemId(), line.getName(),
+						line.getUnitPrice(), line.getQuantity()));
+			}
+		}
+		return response;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public List<OrderLineResponse> getLines() {
+		return lines;
+	}
+}
@@ -0,0 +1,308 @@
+package com.example.demo.order;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+
+/**
+ * Bounded hand-off between order submission and the database. Requests only
+ * validate and enqueue; a single writer thread drains the queue and inserts
+ * whole batches, orders and their lines, in one transaction. When the queue
+ * is full, {@link #offer} fails fast so callers can shed load instead of
+ * piling up threads. An accepted order has already been acknowledged to the
+ * client, so one that cannot be written is not simply dropped: it is parked
+ * and retried with exponential backoff, capped at the configured maximum.
+ * Parked orders count against the capacity. An order that still fails after
+ * the configured number of attempts, or that the database refuses as a
+ * constraint violation, is written to the dead-letter log with everything
+ * needed to replay it and counted.
+ */
+@Component
+public class OrderSubmissionQueue {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderSubmissionQueue.class);
+	private static final Logger deadLetters = LoggerFactory.getLogger(
+			OrderSubmissionQueue.class.getName() + ".DeadLetter");
+
+	private final BlockingQueue<Pending> queue;
+	private final OrderRepository orderRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final long offerTimeoutMillis;
+	private final long retryInitialMillis;
+	private final long retryMaxMillis;
+	private final int maxAttempts;
+	private final Thread writer;
+	// owned by the writer thread; concurrent only so its size can be read
+	private final Queue<Pending> parked = new ConcurrentLinkedQueue<>();
+
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder written = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder deadLettered = new LongAdder();
+	private volatile long lastWriteLagMillis;
+	private volatile boolean running = true;
+
+	public OrderSubmissionQueue(OrderRepository orderRepository, TransactionTemplate transactionTemplate,
+			@Value("${ecommerce.order.queue.capacity:10000}") int capacity,
+			@Value("${ecommerce.order.queue.batch-size:100}") int batchSize,
+			@Value("${ecommerce.order.queue.offer-timeout-ms:50}") long offerTimeoutMillis,
+			@Value("${ecommerce.order.queue.retry-initial-ms:1000}") long retryInitialMillis,
+			@Value("${ecommerce.order.queue.retry-max-ms:60000}") long retryMaxMillis,
+			@Value("${ecommerce.order.queue.max-attempts:10}") int maxAttempts) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.orderRepository = orderRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.batchSize = batchSize;
+		this.offerTimeoutMillis = offerTimeoutMillis;
+		this.retryInitialMillis = retryInitialMillis;
+		this.retryMaxMillis = retryMaxMillis;
+		this.maxAttempts = maxAttempts;
+		this.writer = new Thread(this::drain, "order-writer");
+		this.writer.setDaemon(true);
+	}
+
+	@PostConstruct
+	public void start() {
+		writer.start();
+	}
+
+	/**
+	 * Enqueues the order for asynchronous insertion, waiting at most the
+	 * configured offer timeout for space. Parked orders take up space too.
+	 *
+	 * @return {@code false} if the queue stayed full
+	 */
+	public boolean offer(UserOrder order) {
+		try {
+			if (running && parked.size() < queue.remainingCapacity()
+					&& queue.offer(new Pending(order), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				accepted.increment();
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		rejected.increment();
+		return false;
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		running = false;
+		writer.interrupt();
+		writer.join(TimeUnit.SECONDS.toMillis(30));
+		if (writer.isAlive()) {
+			log.error("Order writer did not stop, {} queued and {} parked orders are not written", queue.size(),
+					parked.size());
+			return;
+		}
+		List<Pending> remaining = new ArrayList<>(parked);
+		parked.clear();
+		queue.drainTo(remaining);
+		if (!remaining.isEmpty()) {
+			write(remaining);
+		}
+		for (Pending lost : parked) {
+			deadLetter(lost, "not written before shutdown");
+		}
+		parked.clear();
+		log.info("Order writer stopped, {} orders written, {} failed attempts, {} dead-lettered", written.sum(),
+				failed.sum(), deadLettered.sum());
+	}
+
+	public int getDepth() {
+		return queue.size();
+	}
+
+	public int getRemainingCapacity() {
+		return queue.remainingCapacity();
+	}
+
+	/**
+	 * Age of the oldest order still waiting to be written.
+	 */
+	public long getLagMillis() {
+		Pending head = queue.peek();
+		return head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedAt);
+	}
+
+	public long getLastWriteLagMillis() {
+		return lastWriteLagMillis;
+	}
+
+	public long getAcceptedCount() {
+		return accepted.sum();
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	public long getWrittenCount() {
+		return written.sum();
+	}
+
+	/**
+	 * Failed write attempts; each one parks the order for a retry.
+	 */
+	public long getFailedCount() {
+		return failed.sum();
+	}
+
+	/**
+	 * Orders given up on and written to the dead-letter log.
+	 */
+	public long getDeadLetterCount() {
+		return deadLettered.sum();
+	}
+
+	/**
+	 * Orders waiting to be retried after a failed write.
+	 */
+	public int getParkedCount() {
+		return parked.size();
+	}
+
+	private void drain() {
+		List<Pending> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				long now = System.nanoTime();
+				takeDueRetries(batch, now);
+				if (batch.isEmpty()) {
+					Pending first = queue.poll(pollTimeoutMillis(now), TimeUnit.MILLISECONDS);
+					if (first == null) {
+						continue;
+					}
+					batch.add(first);
+				}
+				queue.drainTo(batch, batchSize - batch.size());
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Order writer failed on a batch of {}", batch.size(), e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void write(List<Pending> batch) {
+		List<UserOrder> orders = new ArrayList<>(batch.size());
+		for (Pending pending : batch) {
+			orders.add(pending.order);
+		}
+		try {
+			transactionTemplate.execute(status -> orderRepository.saveAllWithLines(orders));
+			written.add(orders.size());
+		} catch (RuntimeException e) {
+			log.error("Batch insert of {} orders failed, retrying one by one", orders.size(), e);
+			for (Pending pending : batch) {
+				UserOrder order = pending.order;
+				try {
+					order.setId(null);
+					transactionTemplate.execute(status -> orderRepository.saveWithLines(order));
+					written.increment();
+				} catch (RuntimeException single) {
+					park(pending, single);
+				}
+			}
+		}
+		lastWriteLagMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batch.get(0).enqueuedAt);
+	}
+
+	private void park(Pending pending, RuntimeException cause) {
+		failed.increment();
+		// the rolled back insert may have assigned one
+		pending.order.setId(null);
+		pending.attempts++;
+		if (cause instanceof DataIntegrityViolationException) {
+			log.error("Order {} for {} violates a constraint, not retrying", pending.order.getReference(),
+					pending.order.getUser().getUsername(), cause);
+			deadLetter(pending, "constraint violation");
+			return;
+		}
+		if (pending.attempts >= maxAttempts) {
+			log.error("Order {} for {} failed {} times, giving up", pending.order.getReference(),
+					pending.order.getUser().getUsername(), pending.attempts, cause);
+			deadLetter(pending, "retries exhausted");
+			return;
+		}
+		long backoffMillis = Math.min(retryMaxMillis, retryInitialMillis << Math.min(pending.attempts - 1, 20));
+		pending.retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+		parked.add(pending);
+		log.warn("Order {} for {} failed on attempt {}, retrying in {} ms", pending.order.getReference(),
+				pending.order.getUser().getUsername(), pending.attempts, backoffMillis, cause);
+	}
+
+	private void deadLetter(Pending pending, String reason) {
+		deadLettered.increment();
+		UserOrder order = pending.order;
+		List<String> lines = new ArrayList<>();
+		if (order.getLines() != null) {
+			for (OrderLine line : order.getLines()) {
+				lines.add(line.getItemId() + "x" + line.getQuantity() + "@" + line.getUnitPrice());
+			}
+		}
+		deadLetters.error("{} {} {} {} {} {} {}", keyValue("reason", reason),
+				keyValue("reference", order.getReference()), keyValue("user", order.getUser().getUsername()),
+				keyValue("total", order.getTotal()),
+				keyValue("created_at", order.getCreatedAt()), keyValue("lines", lines),
+				keyValue("attempts", pending.attempts));
+	}
+
+	private void takeDueRetries(List<Pending> batch, long now) {
+		for (Iterator<Pending> it = parked.iterator(); it.hasNext() && batch.size() < batchSize;) {
+			Pending pending = it.next();
+			if (pending.retryAt - now <= 0) {
+				it.remove();
+				batch.add(pending);
+			}
+		}
+	}
+
+	private long pollTimeoutMillis(long now) {
+		long timeout = TimeUnit.SECONDS.toNanos(1);
+		for (Pending pending : parked) {
+			timeout = Math.min(timeout, pending.retryAt - now);
+		}
+		return Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeout));
+	}
+
+	private static final class Pending {
+		private final UserOrder order;
+		private final long enqueuedAt = System.nanoTime();
+		private int attempts;
+		private long retryAt;
+
+		private Pending(UserOrder order) {
+			this.order = order;
+		}
+	}
+}
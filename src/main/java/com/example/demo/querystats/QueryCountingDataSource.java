@@ -0,0 +1,155 @@
+package com.example.demo.querystats;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Counts statements, rows read and time spent in JDBC calls into the
+ * {@link QueryStats} bound to the calling thread. Connections, statements
+ * and result sets are wrapped in JDK proxies; when no stats are bound each
+ * call costs one thread-local lookup on top of the delegate.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+	public QueryCountingDataSource(DataSource target) {
+		super(target);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return wrap(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return wrap(super.getConnection(username, password));
+	}
+
+	private static Connection wrap(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+	}
+
+	/**
+	 * Base for the proxies: identity-based equality, everything else passed
+	 * to the wrapped object.
+	 */
+	private abstract static class Delegate<T> implements InvocationHandler {
+		final T target;
+
+		Delegate(T target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+				return proxy == args[0];
+			}
+			if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+				return System.identityHashCode(proxy);
+			}
+			return handle(method, args);
+		}
+
+		abstract Object handle(Method method, Object[] args) throws Throwable;
+
+		Object call(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	private static final class ConnectionHandler extends Delegate<Connection> {
+
+		private ConnectionHandler(Connection connection) {
+			super(connection);
+		}
+
+		@Override
+		Object handle(Method method, Object[] args) throws Throwable {
+			Object result = call(method, args);
+			if (result instanceof Statement) {
+				String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+				Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+						: result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+				return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[] { type },
+						new StatementHandler((Statement) result, sql));
+			}
+			return result;
+		}
+	}
+
+	private static final class StatementHandler extends Delegate<Statement> {
+		private final String preparedSql;
+
+		private StatementHandler(Statement statement, String preparedSql) {
+			super(statement);
+			this.preparedSql = preparedSql;
+		}
+
+		@Override
+		Object handle(Method method, Object[] args) throws Throwable {
+			QueryStats stats = QueryStats.current();
+			if (stats == null) {
+				return call(method, args);
+			}
+			String name = method.getName();
+			if (name.startsWith("execute")) {
+				String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+				long start = System.nanoTime();
+				try {
+					return wrapResultSet(call(method, args));
+				} finally {
+					stats.recordStatement(sql, System.nanoTime() - start);
+				}
+			}
+			if (name.equals("getResultSet")) {
+				return wrapResultSet(call(method, args));
+			}
+			return call(method, args);
+		}
+
+		private static Object wrapResultSet(Object result) {
+			if (result instanceof ResultSet) {
+				return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+						new Class<?>[] { ResultSet.class }, new ResultSetHandler((ResultSet) result));
+			}
+			return result;
+		}
+	}
+
+	private static final class ResultSetHandler extends Delegate<ResultSet> {
+
+		private ResultSetHandler(ResultSet resultSet) {
+			super(resultSet);
+		}
+
+		@Override
+		Object handle(Method method, Object[] args) throws Throwable {
+			Object result = call(method, args);
+			if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+				QueryStats stats = QueryStats.current();
+				if (stats != null) {
+					stats.recordRow();
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.example.demo.querystats;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the application data source in a {@link QueryCountingDataSource} so
+ * JPA and {@code JdbcTemplate} statements are counted alike.
+ */
+@Component
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+	private final boolean enabled;
+
+	public QueryCountingDataSourcePostProcessor(@Value("${ecommerce.querystats.enabled:true}") boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (enabled && "dataSource".equals(beanName) && bean instanceof DataSource
+				&& !(bean instanceof QueryCountingDataSource)) {
+			return new QueryCountingDataSource((DataSource) bean);
+		}
+		return bean;
+	}
+}
@@ -0,0 +1,91 @@
+package com.example.demo.querystats;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SQL statements, rows read and JDBC time of one unit of work, usually an
+ * HTTP request. Stats are bound to the current thread between
+ * {@link #start()} and {@link #stop()}; work done on other threads, such as
+ * write-behind flushes, is not counted.
+ */
+public final class QueryStats {
+
+	private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+	private int statements;
+	private long rows;
+	private long jdbcNanos;
+	private final Map<String, Integer> executions = new HashMap<>();
+
+	/**
+	 * Returns the stats bound to the current thread, or {@code null} when
+	 * nothing is being counted.
+	 */
+	public static QueryStats current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Binds fresh stats to the current thread, replacing any already bound.
+	 */
+	public static QueryStats start() {
+		QueryStats stats = new QueryStats();
+		CURRENT.set(stats);
+		return stats;
+	}
+
+	public static void stop() {
+		CURRENT.remove();
+	}
+
+	void recordStatement(String sql, long nanos) {
+		statements++;
+		jdbcNanos += nanos;
+		if (sql != null) {
+			executions.merge(sql, 1, Integer::sum);
+		}
+	}
+
+	void recordRow() {
+		rows++;
+	}
+
+	public int getStatementCount() {
+		return statements;
+	}
+
+	public long getRowCount() {
+		return rows;
+	}
+
+	public long getJdbcNanos() {
+		return jdbcNanos;
+	}
+
+	public double getJdbcMillis() {
+		return jdbcNanos / 1_000_000.0;
+	}
+
+	/**
+	 * Statements executed at least {@code threshold} times, with their counts.
+	 * The same select repeated once per parent row is the signature of an
+	 * N+1 lazy load.
+	 */
+	public Map<String, Integer> getRepeatedStatements(int threshold) {
+		Map<String, Integer> repeated = new LinkedHashMap<>();
+		for (Map.Entry<String, Integer> entry : executions.entrySet()) {
+			if (entry.getValue() >= threshold) {
+				repeated.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return repeated;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "%d statements, %d rows, %.2f ms", statements, rows, getJdbcMillis());
+	}
+}
@@ -0,0 +1,126 @@
+package com.example.demo.querystats;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Counts the SQL run on behalf of each request and hands the result to the
+ * {@link QueryStatsRecorder}. With headers enabled the counts are also sent
+ * back as {@code X-Query-Count}, {@code X-Query-Rows} and
+ * {@code X-Query-Time-Ms}; they are written when the body starts, so
+ * statements run while streaming a body are logged but not in the headers.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+	public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+	public static final String QUERY_ROWS_HEADER = "X-Query-Rows";
+	public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+	private final QueryStatsRecorder recorder;
+	private final boolean enabled;
+	private final boolean headers;
+
+	public QueryStatsFilter(QueryStatsRecorder recorder,
+			@Value("${ecommerce.querystats.enabled:true}") boolean enabled,
+			@Value("${ecommerce.querystats.headers:false}") boolean headers) {
+		this.recorder = recorder;
+		this.enabled = enabled;
+		this.headers = headers;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (!enabled) {
+			chain.doFilter(request, response);
+			return;
+		}
+		// join stats already bound by the caller, as tests measuring a request do
+		QueryStats outer = QueryStats.current();
+		QueryStats stats = outer != null ? outer : QueryStats.start();
+		StatsHeaderResponse wrapped = headers ? new StatsHeaderResponse(response, stats) : null;
+		try {
+			chain.doFilter(request, wrapped != null ? wrapped : response);
+		} finally {
+			if (wrapped != null) {
+				wrapped.writeHeaders();
+			}
+			if (outer == null) {
+				QueryStats.stop();
+			}
+			recorder.record(request.getMethod() + " " + request.getRequestURI(), stats);
+		}
+	}
+
+	private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+		private final QueryStats stats;
+		private boolean written;
+
+		private StatsHeaderResponse(HttpServletResponse response, QueryStats stats) {
+			super(response);
+			this.stats = stats;
+		}
+
+		private void writeHeaders() {
+			if (written || isCommitted()) {
+				return;
+			}
+			written = true;
+			setHeader(QUERY_COUNT_HEADER, Integer.toString(stats.getStatementCount()));
+			setHeader(QUERY_ROWS_HEADER, Long.toString(stats.getRowCount()));
+			setHeader(QUERY_TIME_HEADER, String.format(Locale.ROOT, "%.2f", stats.getJdbcMillis()));
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			writeHeaders();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			writeHeaders();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			writeHeaders();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			writeHeaders();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			writeHeaders();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			writeHeaders();
+			super.sendRedirect(location);
+		}
+	}
+}
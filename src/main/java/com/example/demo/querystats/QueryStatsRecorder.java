@@ -0,0 +1,90 @@
+package com.example.demo.querystats;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Totals of the per-request {@link QueryStats}. Requests that run more
+ * statements than the budget are logged at warn level, as is any statement
+ * repeated often enough within one request to suggest an N+1 lazy load;
+ * everything else goes to the debug log.
+ */
+@Component
+public class QueryStatsRecorder {
+
+	private static final Logger log = LoggerFactory.getLogger(QueryStatsRecorder.class);
+
+	private final int statementBudget;
+	private final int repeatThreshold;
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder statements = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder jdbcNanos = new LongAdder();
+	private final LongAdder overBudget = new LongAdder();
+	private final LongAdder repeatedStatements = new LongAdder();
+	private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+
+	public QueryStatsRecorder(@Value("${ecommerce.querystats.statement-budget:20}") int statementBudget,
+			@Value("${ecommerce.querystats.repeat-threshold:5}") int repeatThreshold) {
+		this.statementBudget = statementBudget;
+		this.repeatThreshold = repeatThreshold;
+	}
+
+	public void record(String request, QueryStats stats) {
+		requests.increment();
+		statements.add(stats.getStatementCount());
+		rows.add(stats.getRowCount());
+		jdbcNanos.add(stats.getJdbcNanos());
+		maxStatements.accumulate(stats.getStatementCount());
+		if (stats.getStatementCount() > statementBudget) {
+			overBudget.increment();
+			log.warn("{} ran {}, over the budget of {} statements", request, stats, statementBudget);
+		} else {
+			log.debug("{} ran {}", request, stats);
+		}
+		for (Map.Entry<String, Integer> repeated : stats.getRepeatedStatements(repeatThreshold).entrySet()) {
+			repeatedStatements.increment();
+			log.warn("{} ran the same statement {} times, possible N+1: {}", request, repeated.getValue(),
+					repeated.getKey());
+		}
+	}
+
+	public int getStatementBudget() {
+		return statementBudget;
+	}
+
+	public long getRequestCount() {
+		return requests.sum();
+	}
+
+	public long getStatementCount() {
+		return statements.sum();
+	}
+
+	public long getRowCount() {
+		return rows.sum();
+	}
+
+	public double getJdbcMillis() {
+		return jdbcNanos.sum() / 1_000_000.0;
+	}
+
+	public long getOverBudgetCount() {
+		return overBudget.sum();
+	}
+
+	public long getRepeatedStatementCount() {
+		return repeatedStatements.sum();
+	}
+
+	public long getMaxStatementCount() {
+		return maxStatements.get();
+	}
+}
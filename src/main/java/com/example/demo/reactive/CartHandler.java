@@ -0,0 +1,67 @@
+package com.example.demo.reactive;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.requests.CartItemChange;
+import com.example.demo.model.requests.ModifyCartBatchRequest;
+import com.example.demo.model.requests.ModifyCartRequest;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link com.example.demo.controllers.CartController}.
+ */
+@Component
+@Profile("reactive")
+public class CartHandler {
+
+	private final ReactiveCartRepository carts;
+
+	public CartHandler(ReactiveCartRepository carts) {
+		this.carts = carts;
+	}
+
+	public Mono<ServerResponse> addToCart(ServerRequest request) {
+		return request.bodyToMono(ModifyCartRequest.class)
+				.flatMap(body -> carts.modify(body.getUsername(), Collections.singleton(body.getItemId()),
+						(cart, items) -> cart.addItem(items.get(body.getItemId()), body.getQuantity())))
+				.flatMap(ReactiveResponses::ok)
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	public Mono<ServerResponse> removeFromCart(ServerRequest request) {
+		return request.bodyToMono(ModifyCartRequest.class)
+				.flatMap(body -> carts.modify(body.getUsername(), Collections.singleton(body.getItemId()),
+						(cart, items) -> cart.removeItem(items.get(body.getItemId()), body.getQuantity())))
+				.flatMap(ReactiveResponses::ok)
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	public Mono<ServerResponse> modifyCart(ServerRequest request) {
+		return request.bodyToMono(ModifyCartBatchRequest.class)
+				.flatMap(body -> {
+					List<CartItemChange> changes = body.getChanges() == null ? Collections.emptyList() : body.getChanges();
+					List<Long> itemIds = changes.stream().map(CartItemChange::getItemId).collect(Collectors.toList());
+					return carts.modify(body.getUsername(), itemIds, (cart, items) -> {
+						for (CartItemChange change : changes) {
+							Item item = items.get(change.getItemId());
+							if (change.getQuantity() > 0) {
+								cart.addItem(item, change.getQuantity());
+							} else {
+								cart.removeItem(item, -change.getQuantity());
+							}
+						}
+					});
+				})
+				.flatMap(ReactiveResponses::ok)
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.demo.reactive;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.responses.ItemPage;
+import com.example.demo.search.ItemSearchIndex;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link com.example.demo.controllers.ItemController}.
+ */
+@Component
+@Profile("reactive")
+public class ItemHandler {
+
+	private final ReactiveItemRepository items;
+	private final ItemSearchIndex itemSearchIndex;
+	private final int maxPageSize;
+
+	public ItemHandler(ReactiveItemRepository items, ItemSearchIndex itemSearchIndex,
+			@Value("${ecommerce.item.page.max-size:500}") int maxPageSize) {
+		this.items = items;
+		this.itemSearchIndex = itemSearchIndex;
+		this.maxPageSize = maxPageSize;
+	}
+
+	public Mono<ServerResponse> getItems(ServerRequest request) {
+		return items.findAll().flatMap(ReactiveResponses::ok);
+	}
+
+	public Mono<ServerResponse> getItemPage(ServerRequest request) {
+		long after = request.queryParam("after").map(Long::valueOf).orElse(0L);
+		int size = request.queryParam("size").map(Integer::valueOf).orElse(50);
+		if (size <= 0) {
+			return ServerResponse.badRequest().build();
+		}
+		int limit = Math.min(size, maxPageSize);
+		return items.findPageAfter(after, limit + 1).flatMap(page -> {
+			if (page.size() <= limit) {
+				return ReactiveResponses.ok(new ItemPage(page, null));
+			}
+			List<Item> trimmed = page.subList(0, limit);
+			return ReactiveResponses.ok(new ItemPage(trimmed, trimmed.get(limit - 1).getId()));
+		});
+	}
+
+	public Mono<ServerResponse> streamItems(ServerRequest request) {
+		return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON_UTF8)
+				.body(items.streamAll(maxPageSize), Item.class);
+	}
+
+	public Mono<ServerResponse> searchItems(ServerRequest request) {
+		String query = request.queryParam("q").orElse(null);
+		if (query == null) {
+			return ServerResponse.badRequest().build();
+		}
+		int limit = request.queryParam("limit").map(Integer::valueOf).orElse(20);
+		List<Item> found = itemSearchIndex.search(query, Math.min(limit, maxPageSize));
+		return found.isEmpty() ? ServerResponse.notFound().build() : ReactiveResponses.ok(found);
+	}
+
+	public Mono<ServerResponse> getItemById(ServerRequest request) {
+		Long id = Long.valueOf(request.pathVariable("id"));
+		return items.findById(id).flatMap(ReactiveResponses::ok).switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	public Mono<ServerResponse> getItemsByName(ServerRequest request) {
+		return items.findByName(request.pathVariable("name"))
+				.filter(found -> !found.isEmpty())
+				.flatMap(ReactiveResponses::ok)
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.demo.reactive;
+
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Runs blocking JPA work for the reactive API on the bounded JDBC scheduler,
+ * one transaction per call, so event loop threads never wait on the
+ * database. Each call must return fully initialized results: the entity
+ * manager is gone by the time the response is written.
+ */
+@Component
+@Profile("reactive")
+public class JdbcOffload {
+
+	private final Scheduler scheduler;
+	private final TransactionTemplate readTransaction;
+	private final TransactionTemplate writeTransaction;
+
+	public JdbcOffload(@Qualifier("jdbcScheduler") Scheduler scheduler, PlatformTransactionManager transactionManager) {
+		this.scheduler = scheduler;
+		this.readTransaction = new TransactionTemplate(transactionManager);
+		this.readTransaction.setReadOnly(true);
+		this.writeTransaction = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Emits the result of {@code work} run in a read-only transaction, or
+	 * completes empty if it returns {@code null}.
+	 */
+	public <T> Mono<T> read(Callable<T> work) {
+		return Mono.fromCallable(() -> readTransaction.execute(status -> call(work))).subscribeOn(scheduler);
+	}
+
+	/**
+	 * Emits the result of {@code work} run in a read-write transaction, or
+	 * completes empty if it returns {@code null}.
+	 */
+	public <T> Mono<T> write(Callable<T> work) {
+		return Mono.fromCallable(() -> writeTransaction.execute(status -> call(work))).subscribeOn(scheduler);
+	}
+
+	/**
+	 * Like {@link #write(Callable)}, but runs the whole transaction, commit
+	 * included, inside {@code guard}: a lock taken there is held until the
+	 * changes are visible to the next holder.
+	 */
+	public <T> Mono<T> write(Function<Supplier<T>, T> guard, Callable<T> work) {
+		return Mono.fromCallable(() -> guard.apply(() -> writeTransaction.execute(status -> call(work))))
+				.subscribeOn(scheduler);
+	}
+
+	private static <T> T call(Callable<T> work) {
+		try {
+			return work.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
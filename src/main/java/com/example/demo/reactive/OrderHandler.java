@@ -0,0 +1,89 @@
+package com.example.demo.reactive;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.example.demo.model.responses.OrderHistoryPage;
+import com.example.demo.model.responses.OrderReceipt;
+import com.example.demo.model.responses.OrderSummary;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link com.example.demo.controllers.OrderController}.
+ */
+@Component
+@Profile("reactive")
+public class OrderHandler {
+
+	private final ReactiveUserRepository users;
+	private final ReactiveOrderRepository orders;
+	private final int maxPageSize;
+
+	public OrderHandler(ReactiveUserRepository users, ReactiveOrderRepository orders,
+			@Value("${ecommerce.order.history.max-page-size:100}") int maxPageSize) {
+		this.users = users;
+		this.orders = orders;
+		this.maxPageSize = maxPageSize;
+	}
+
+	public Mono<ServerResponse> submit(ServerRequest request) {
+		return orders.submit(request.pathVariable("username"))
+				.flatMap(ReactiveResponses::ok)
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	public Mono<ServerResponse> submitAsync(ServerRequest request) {
+		return orders.submitAsync(request.pathVariable("username"))
+				.flatMap(order -> ServerResponse.status(HttpStatus.ACCEPTED)
+						.syncBody(new OrderReceipt(order.getReference(), order.getTotal())))
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	public Mono<ServerResponse> getOrdersForUser(ServerRequest request) {
+		return users.findByUsername(request.pathVariable("username"))
+				.flatMap(orders::findByUser)
+				.flatMap(ReactiveResponses::ok)
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	public Mono<ServerResponse> getOrderSummariesForUser(ServerRequest request) {
+		long before = request.queryParam("before").map(Long::valueOf).orElse(Long.MAX_VALUE);
+		int size = request.queryParam("size").map(Integer::valueOf).orElse(20);
+		if (size <= 0) {
+			return ServerResponse.badRequest().build();
+		}
+		int limit = Math.min(size, maxPageSize);
+		return users.findByUsername(request.pathVariable("username"))
+				.flatMap(user -> orders.findSummariesBefore(user, before, limit + 1))
+				.flatMap(page -> {
+					if (page.size() <= limit) {
+						return ReactiveResponses.ok(new OrderHistoryPage(page, null));
+					}
+					List<OrderSummary> trimmed = page.subList(0, limit);
+					return ReactiveResponses.ok(new OrderHistoryPage(trimmed, trimmed.get(limit - 1).getId()));
+				})
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	public Mono<ServerResponse> getOrderByReference(ServerRequest request) {
+		return users.findByUsername(request.pathVariable("username"))
+				.flatMap(user -> orders.findByReferenceAndUser(request.pathVariable("reference"), user))
+				.flatMap(ReactiveResponses::ok)
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	public Mono<ServerResponse> getOrderForUser(ServerRequest request) {
+		Long orderId = Long.valueOf(request.pathVariable("orderId"));
+		return users.findByUsername(request.pathVariable("username"))
+				.flatMap(user -> orders.findByIdAndUser(orderId, user))
+				.flatMap(ReactiveResponses::ok)
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+}
@@ -0,0 +1,73 @@
+package com.example.demo.reactive;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.cache.ItemPayloads;
+import com.example.demo.cart.CartLocks;
+import com.example.demo.cart.CartStore;
+import com.example.demo.identity.UserIdentityIndex;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.CartResponse;
+
+import reactor.core.publisher.Mono;
+
+@Component
+@Profile("reactive")
+public class ReactiveCartRepository {
+
+	private final UserIdentityIndex userIdentityIndex;
+	private final ItemRepository itemRepository;
+	private final CartStore cartStore;
+	private final CartLocks cartLocks;
+	private final ItemPayloads itemPayloads;
+	private final JdbcOffload jdbc;
+
+	public ReactiveCartRepository(UserIdentityIndex userIdentityIndex, ItemRepository itemRepository,
+			CartStore cartStore, CartLocks cartLocks, ItemPayloads itemPayloads, JdbcOffload jdbc) {
+		this.userIdentityIndex = userIdentityIndex;
+		this.itemRepository = itemRepository;
+		this.cartStore = cartStore;
+		this.cartLocks = cartLocks;
+		this.itemPayloads = itemPayloads;
+		this.jdbc = jdbc;
+	}
+
+	/**
+	 * Applies {@code change} to the user's cart under the cart lock and saves
+	 * it, emitting the resulting cart. The lock is held until the transaction
+	 * has committed, as in the servlet controller, so the next writer reads
+	 * the saved cart. Completes empty if the user or any of the items does not
+	 * exist.
+	 */
+	public Mono<CartResponse> modify(String username, Collection<Long> itemIds, BiConsumer<Cart, Map<Long, Item>> change) {
+		return jdbc.write(transaction -> cartLocks.withLock(username, transaction), () -> {
+			User user = userIdentityIndex.findUser(username);
+			if (user == null) {
+				return null;
+			}
+			Set<Long> ids = new HashSet<>(itemIds);
+			Map<Long, Item> items = new HashMap<>();
+			if (!ids.isEmpty()) {
+				itemRepository.findAllById(ids).forEach(item -> items.put(item.getId(), item));
+			}
+			if (items.size() != ids.size()) {
+				return null;
+			}
+			Cart cart = cartStore.getCart(user);
+			change.accept(cart, items);
+			cartStore.save(cart);
+			return CartResponse.of(cart, itemPayloads);
+		});
+	}
+}
@@ -0,0 +1,115 @@
+package com.example.demo.reactive;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+
+import com.example.demo.cart.CartBusyException;
+import com.example.demo.security.CachingTokenVerifier;
+import com.example.demo.security.ReactiveJWTAuthenticationVerificationFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Wires the functional routes of the reactive API. They mirror the servlet
+ * controllers path for path so the two stacks can be compared under the same
+ * load; the reactive routes are served by {@link ReactiveServer} on their own
+ * port. Blocking work waits in a bounded queue for the JDBC threads; when the
+ * queue is full the request is answered with 503 and {@code Retry-After}
+ * rather than piling up behind a database that cannot keep up.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+	private static Logger log = LoggerFactory.getLogger(ReactiveConfiguration.class);
+
+	@Bean(destroyMethod = "dispose")
+	public Scheduler jdbcScheduler(@Value("${ecommerce.reactive.jdbc-threads:10}") int threads,
+			@Value("${ecommerce.reactive.jdbc-queue-capacity:100}") int queueCapacity) {
+		AtomicInteger sequence = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "reactive-jdbc-" + sequence.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		return Schedulers.fromExecutorService(executor);
+	}
+
+	@Bean
+	public RouterFunction<ServerResponse> reactiveRoutes(ItemHandler items, CartHandler carts, OrderHandler orders) {
+		return route(GET("/api/item"), items::getItems)
+				.andRoute(GET("/api/item/page"), items::getItemPage)
+				.andRoute(GET("/api/item/stream"), items::streamItems)
+				.andRoute(GET("/api/item/search"), items::searchItems)
+				.andRoute(GET("/api/item/name/{name}"), items::getItemsByName)
+				.andRoute(GET("/api/item/{id}"), items::getItemById)
+				.andRoute(POST("/api/cart/addToCart"), carts::addToCart)
+				.andRoute(POST("/api/cart/removeFromCart"), carts::removeFromCart)
+				.andRoute(POST("/api/cart/modify"), carts::modifyCart)
+				.andRoute(POST("/api/order/submit/{username}"), orders::submit)
+				.andRoute(POST("/api/order/submitAsync/{username}"), orders::submitAsync)
+				.andRoute(GET("/api/order/history/{username}"), orders::getOrdersForUser)
+				.andRoute(GET("/api/order/history/{username}/summary"), orders::getOrderSummariesForUser)
+				.andRoute(GET("/api/order/history/{username}/reference/{reference}"), orders::getOrderByReference)
+				.andRoute(GET("/api/order/history/{username}/{orderId}"), orders::getOrderForUser)
+				.filter((request, next) -> next.handle(request)
+						.onErrorResume(CartBusyException.class, e -> {
+							log.error("cart is busy, rejecting request.");
+							return ServerResponse.status(HttpStatus.CONFLICT).build();
+						})
+						.onErrorResume(ObjectOptimisticLockingFailureException.class, e -> {
+							log.error("cart was updated concurrently, rejecting stale write.");
+							return ServerResponse.status(HttpStatus.CONFLICT).build();
+						})
+						.onErrorResume(ReactiveOrderRepository.OrderQueueFullException.class, e -> {
+							log.error("order queue is full, rejecting submission.");
+							return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+									.header(HttpHeaders.RETRY_AFTER, "1").build();
+						})
+						.onErrorResume(RejectedExecutionException.class, e -> {
+							log.error("jdbc queue is full, rejecting request.");
+							return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+									.header(HttpHeaders.RETRY_AFTER, "1").build();
+						})
+						.onErrorResume(NumberFormatException.class, e -> ServerResponse.badRequest().build())
+						.onErrorResume(ServerWebInputException.class, e -> ServerResponse.badRequest().build()));
+	}
+
+	@Bean
+	public ReactiveServer reactiveServer(RouterFunction<ServerResponse> reactiveRoutes, ObjectMapper objectMapper,
+			CachingTokenVerifier tokenVerifier, @Value("${ecommerce.reactive.port:8081}") int port) {
+		HandlerStrategies strategies = HandlerStrategies.builder()
+				.codecs(codecs -> {
+					codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+					codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+				})
+				.webFilter(new ReactiveJWTAuthenticationVerificationFilter(tokenVerifier))
+				.build();
+		return new ReactiveServer(reactiveRoutes, strategies, port);
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.demo.reactive;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.cache.ItemCache;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+@Profile("reactive")
+public class ReactiveItemRepository {
+
+	private final ItemRepository itemRepository;
+	private final ItemCache itemCache;
+	private final JdbcOffload jdbc;
+
+	public ReactiveItemRepository(ItemRepository itemRepository, ItemCache itemCache, JdbcOffload jdbc) {
+		this.itemRepository = itemRepository;
+		this.itemCache = itemCache;
+		this.jdbc = jdbc;
+	}
+
+	public Mono<List<Item>> findAll() {
+		return jdbc.read(() -> itemCache.findAll(itemRepository::findAll));
+	}
+
+	public Mono<Item> findById(Long id) {
+		return jdbc.read(() -> itemCache.findById(id, itemRepository::findById).orElse(null));
+	}
+
+	public Mono<List<Item>> findByName(String name) {
+		return jdbc.read(() -> itemCache.findByName(name, itemRepository::findByName));
+	}
+
+	/**
+	 * Returns up to {@code size} items with ids greater than {@code after}.
+	 */
+	public Mono<List<Item>> findPageAfter(long after, int size) {
+		return jdbc.read(() -> itemRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, size)));
+	}
+
+	/**
+	 * Emits the whole catalog in id order, fetching the next page only when
+	 * the subscriber has asked for more.
+	 */
+	public Flux<Item> streamAll(int pageSize) {
+		return findPageAfter(0L, pageSize)
+				.expand(page -> page.size() < pageSize ? Mono.empty()
+						: findPageAfter(page.get(page.size() - 1).getId(), pageSize))
+				.concatMapIterable(page -> page);
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.demo.reactive;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.cart.CartLocks;
+import com.example.demo.cart.CartStore;
+import com.example.demo.identity.UserIdentityIndex;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.order.OrderSubmissionQueue;
+
+import reactor.core.publisher.Mono;
+
+@Component
+@Profile("reactive")
+public class ReactiveOrderRepository {
+
+	private final UserIdentityIndex userIdentityIndex;
+	private final OrderRepository orderRepository;
+	private final CartStore cartStore;
+	private final CartLocks cartLocks;
+	private final OrderSubmissionQueue orderSubmissionQueue;
+	private final JdbcOffload jdbc;
+
+	public ReactiveOrderRepository(UserIdentityIndex userIdentityIndex, OrderRepository orderRepository,
+			CartStore cartStore, CartLocks cartLocks, OrderSubmissionQueue orderSubmissionQueue, JdbcOffload jdbc) {
+		this.userIdentityIndex = userIdentityIndex;
+		this.orderRepository = orderRepository;
+		this.cartStore = cartStore;
+		this.cartLocks = cartLocks;
+		this.orderSubmissionQueue = orderSubmissionQueue;
+		this.jdbc = jdbc;
+	}
+
+	/**
+	 * Turns the user's cart into an order and saves it before emitting it.
+	 * Completes empty if the user does not exist.
+	 */
+	public Mono<OrderResponse> submit(String username) {
+		return jdbc.write(() -> {
+			UserOrder order = createFromCart(username);
+			return order == null ? null : OrderResponse.of(orderRepository.saveWithLines(order));
+		});
+	}
+
+	/**
+	 * Turns the user's cart into an order and hands it to the submission
+	 * queue. Fails with {@link OrderQueueFullException} if the queue is full
+	 * and completes empty if the user does not exist.
+	 */
+	public Mono<UserOrder> submitAsync(String username) {
+		return jdbc.write(() -> {
+			UserOrder order = createFromCart(username);
+			if (order != null && !orderSubmissionQueue.offer(order)) {
+				throw new OrderQueueFullException();
+			}
+			return order;
+		});
+	}
+
+	public Mono<List<OrderResponse>> findByUser(User user) {
+		return jdbc.read(() -> orderRepository.findResponsesByUser(user));
+	}
+
+	public Mono<List<OrderSummary>> findSummariesBefore(User user, long before, int size) {
+		return jdbc.read(() -> orderRepository.findSummariesBefore(user, before, PageRequest.of(0, size)));
+	}
+
+	public Mono<OrderResponse> findByReferenceAndUser(String reference, User user) {
+		return jdbc.read(() -> orderRepository.findResponseByReferenceAndUser(reference, user).orElse(null));
+	}
+
+	public Mono<OrderResponse> findByIdAndUser(Long id, User user) {
+		return jdbc.read(() -> orderRepository.findResponseByIdAndUser(id, user).orElse(null));
+	}
+
+	private UserOrder createFromCart(String username) {
+		User user = userIdentityIndex.findUser(username);
+		if (user == null) {
+			return null;
+		}
+		return cartLocks.withLock(username, () -> {
+			cartStore.flush(user);
+			return UserOrder.createFromCart(cartStore.getCart(user));
+		});
+	}
+
+	public static class OrderQueueFullException extends RuntimeException {
+
+		public OrderQueueFullException() {
+			super("Order submission queue is full");
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.example.demo.reactive;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Mono;
+
+final class ReactiveResponses {
+
+	private ReactiveResponses() {
+	}
+
+	static Mono<ServerResponse> ok(Object body) {
+		return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON_UTF8).syncBody(body);
+	}
+}
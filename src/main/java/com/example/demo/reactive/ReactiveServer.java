@@ -0,0 +1,64 @@
+package com.example.demo.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Reactor Netty server for the reactive routes. It runs next to the embedded
+ * servlet container rather than replacing it, so a handful of event loop
+ * threads serve every connection on its port while the servlet stack keeps
+ * its own thread-per-request model.
+ */
+public class ReactiveServer implements SmartLifecycle {
+	private static Logger log = LoggerFactory.getLogger(ReactiveServer.class);
+
+	private final RouterFunction<ServerResponse> routes;
+	private final HandlerStrategies strategies;
+	private final int port;
+
+	private volatile DisposableServer server;
+
+	public ReactiveServer(RouterFunction<ServerResponse> routes, HandlerStrategies strategies, int port) {
+		this.routes = routes;
+		this.strategies = strategies;
+		this.port = port;
+	}
+
+	@Override
+	public void start() {
+		ReactorHttpHandlerAdapter adapter = new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes, strategies));
+		server = HttpServer.create().port(port).handle(adapter).bindNow();
+		log.info("Reactive API started on port {}", server.port());
+	}
+
+	@Override
+	public void stop() {
+		DisposableServer running = server;
+		if (running != null) {
+			running.disposeNow();
+			server = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return server != null;
+	}
+
+	/**
+	 * The bound port, which differs from the configured one when that is 0.
+	 */
+	public int getPort() {
+		DisposableServer running = server;
+		return running == null ? -1 : running.port();
+	}
+}
@@ -0,0 +1,29 @@
+package com.example.demo.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.identity.UserIdentityIndex;
+import com.example.demo.model.persistence.User;
+
+import reactor.core.publisher.Mono;
+
+@Component
+@Profile("reactive")
+public class ReactiveUserRepository {
+
+	private final UserIdentityIndex userIdentityIndex;
+	private final JdbcOffload jdbc;
+
+	public ReactiveUserRepository(UserIdentityIndex userIdentityIndex, JdbcOffload jdbc) {
+		this.userIdentityIndex = userIdentityIndex;
+		this.jdbc = jdbc;
+	}
+
+	/**
+	 * Resolves a user for use as a query parameter; the cart is not loaded.
+	 */
+	public Mono<User> findByUsername(String username) {
+		return jdbc.read(() -> userIdentityIndex.findUser(username));
+	}
+}
@@ -0,0 +1,162 @@
+package com.example.demo.search;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Prebuilt copy of the catalog on local disk, used to warm the search index
+ * at startup without scanning the item table. A snapshot is only trusted if
+ * it is younger than the configured age and still matches the item count
+ * and a fingerprint of the catalog's content: the sum of a SHA-256 based
+ * hash of every item's id, name, description and price. The database
+ * computes the same sum in one aggregate query, so an edited row is noticed
+ * without the items being sent back. A missing or stale snapshot makes the
+ * caller load from the database and write a fresh one.
+ */
+@Component
+public class CatalogSnapshot {
+
+	private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+	// the first eight bytes of SHA-256 over the fields joined by a unit separator, as a signed long
+	private static final String FINGERPRINT = "select count(*) as item_count, coalesce(sum(cast(cast(left("
+			+ "hash('SHA256', stringtoutf8(concat_ws(char(31), id, name, description, price)), 1), 16)"
+			+ " as binary) as bigint)), 0) as content_hash from item";
+	private static final String SEPARATOR = "\u001f";
+	// the scale of item.price, which the database prints every price with
+	private static final int PRICE_SCALE = 2;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+	private final boolean enabled;
+	private final Path path;
+	private final long maxAgeMillis;
+
+	public CatalogSnapshot(DataSource dataSource, ObjectMapper objectMapper,
+			@Value("${ecommerce.catalog.snapshot.enabled:false}") boolean enabled,
+			@Value("${ecommerce.catalog.snapshot.path:catalog-snapshot.json}") String path,
+			@Value("${ecommerce.catalog.snapshot.max-age-minutes:60}") long maxAgeMinutes) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.objectMapper = objectMapper;
+		this.enabled = enabled;
+		this.path = Paths.get(path);
+		this.maxAgeMillis = TimeUnit.MINUTES.toMillis(maxAgeMinutes);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the snapshot's items if snapshots are enabled and the snapshot
+	 * on disk is current.
+	 */
+	public Optional<List<Item>> load() {
+		if (!enabled || !Files.isReadable(path)) {
+			return Optional.empty();
+		}
+		Snapshot snapshot;
+		try (InputStream in = Files.newInputStream(path)) {
+			snapshot = objectMapper.readValue(in, Snapshot.class);
+		} catch (IOException e) {
+			log.warn("Ignoring unreadable catalog snapshot {}: {}", path, e.getMessage());
+			return Optional.empty();
+		}
+		if (System.currentTimeMillis() - snapshot.createdAt > maxAgeMillis) {
+			log.info("Catalog snapshot {} is older than {} minutes", path, TimeUnit.MILLISECONDS.toMinutes(maxAgeMillis));
+			return Optional.empty();
+		}
+		Map<String, Object> fingerprint = jdbcTemplate.queryForMap(FINGERPRINT);
+		if (((Number) fingerprint.get("item_count")).longValue() != snapshot.itemCount
+				|| snapshot.contentHash == null
+				|| !new BigDecimal(fingerprint.get("content_hash").toString()).toBigInteger().equals(snapshot.contentHash)) {
+			log.info("Catalog snapshot {} does not match the item table", path);
+			return Optional.empty();
+		}
+		return Optional.of(snapshot.items);
+	}
+
+	/**
+	 * Replaces the snapshot with {@code items}. The file is written beside the
+	 * old one and moved into place so a reader never sees half a snapshot.
+	 */
+	public void write(Collection<Item> items) {
+		if (!enabled) {
+			return;
+		}
+		Snapshot snapshot = new Snapshot();
+		snapshot.createdAt = System.currentTimeMillis();
+		snapshot.items = new ArrayList<>(items);
+		snapshot.itemCount = items.size();
+		snapshot.contentHash = contentHash(items);
+		try {
+			Path directory = path.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				objectMapper.writeValue(out, snapshot);
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.info("Wrote catalog snapshot of {} items to {}", items.size(), path);
+		} catch (IOException e) {
+			log.error("Could not write catalog snapshot {}", path, e);
+		}
+	}
+
+	/**
+	 * Computes what {@link #FINGERPRINT} returns for a table holding exactly
+	 * {@code items}.
+	 */
+	static BigInteger contentHash(Collection<Item> items) {
+		MessageDigest sha256;
+		try {
+			sha256 = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		BigInteger sum = BigInteger.ZERO;
+		for (Item item : items) {
+			String row = item.getId() + SEPARATOR + item.getName() + SEPARATOR + item.getDescription() + SEPARATOR
+					+ item.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).toPlainString();
+			long hash = ByteBuffer.wrap(sha256.digest(row.getBytes(StandardCharsets.UTF_8))).getLong();
+			sum = sum.add(BigInteger.valueOf(hash));
+		}
+		return sum;
+	}
+
+	static final class Snapshot {
+		public long createdAt;
+		public long itemCount;
+		public BigInteger contentHash;
+		public List<Item> items = new ArrayList<>();
+	}
+}
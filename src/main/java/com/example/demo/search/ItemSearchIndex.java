@@ -0,0 +1,285 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.listeners.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemStreamRepository;
+
+/**
+ * In-memory trigram index over item names and descriptions. Candidates are
+ * collected from the posting lists of the query's trigrams and ranked by
+ * trigram overlap, with exact, prefix and substring name matches boosted, so
+ * misspelled queries still find the closest items.
+ */
+@Component
+public class ItemSearchIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+	private static final int GRAM = 3;
+	private static final double MIN_SIMILARITY = 0.3;
+
+	private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+	private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+	private volatile boolean changedSinceSnapshot;
+
+	@Autowired
+	private ItemStreamRepository itemStreamRepository;
+
+	@Autowired
+	private CatalogSnapshot catalogSnapshot;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		long start = System.nanoTime();
+		documents.clear();
+		postings.clear();
+		Optional<List<Item>> snapshot = catalogSnapshot.load();
+		if (snapshot.isPresent()) {
+			snapshot.get().forEach(this::index);
+		} else {
+			itemStreamRepository.forEach(this::index);
+			catalogSnapshot.write(items());
+		}
+		changedSinceSnapshot = false;
+		log.info("Indexed {} items for search from {} in {} ms", documents.size(),
+				snapshot.isPresent() ? "snapshot" : "database", (System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * Saves catalog changes seen by this instance so the next start does not
+	 * have to fall back to the database.
+	 */
+	@PreDestroy
+	public void saveSnapshot() {
+		if (changedSinceSnapshot) {
+			catalogSnapshot.write(items());
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onItemChanged(ItemChangedEvent event) {
+		changedSinceSnapshot = true;
+		if (event.getType() == ItemChangedEvent.Type.DELETED) {
+			remove(event.getItem().getId());
+		} else {
+			index(event.getItem());
+		}
+	}
+
+	public void index(Item item) {
+		Document document = new Document(copyOf(item));
+		Document previous = documents.put(item.getId(), document);
+		if (previous != null) {
+			for (String gram : previous.grams) {
+				if (!document.grams.contains(gram)) {
+					removePosting(gram, item.getId());
+				}
+			}
+		}
+		for (String gram : document.grams) {
+			postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(item.getId());
+		}
+	}
+
+	public void remove(Long id) {
+		Document previous = documents.remove(id);
+		if (previous != null) {
+			for (String gram : previous.grams) {
+				removePosting(gram, id);
+			}
+		}
+	}
+
+	public int size() {
+		return documents.size();
+	}
+
+	private List<Item> items() {
+		List<Item> items = new ArrayList<>(documents.size());
+		for (Document document : documents.values()) {
+			items.add(document.item);
+		}
+		return items;
+	}
+
+	/**
+	 * Returns up to {@code limit} items ranked by relevance to {@code query}.
+	 */
+	public List<Item> search(String query, int limit) {
+		String normalized = normalize(query);
+		if (normalized.isEmpty() || limit <= 0) {
+			return Collections.emptyList();
+		}
+		Set<String> queryGrams = queryGrams(normalized);
+		Map<Long, int[]> matches = new HashMap<>();
+		for (String gram : queryGrams) {
+			Set<Long> ids = postings.get(gram);
+			if (ids != null) {
+				for (Long id : ids) {
+					matches.computeIfAbsent(id, key -> new int[1])[0]++;
+				}
+			}
+		}
+
+		PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble((Hit hit) -> hit.score));
+		for (Map.Entry<Long, int[]> match : matches.entrySet()) {
+			Document document = documents.get(match.getKey());
+			if (document == null) {
+				continue;
+			}
+			double similarity = (double) match.getValue()[0] / queryGrams.size();
+			double score = document.score(normalized, similarity);
+			if (score <= 0) {
+				continue;
+			}
+			top.offer(new Hit(document.item, score));
+			if (top.size() > limit) {
+				top.poll();
+			}
+		}
+
+		List<Item> results = new ArrayList<>(top.size());
+		while (!top.isEmpty()) {
+			results.add(top.poll().item);
+		}
+		Collections.reverse(results);
+		return results;
+	}
+
+	private void removePosting(String gram, Long id) {
+		postings.computeIfPresent(gram, (key, ids) -> {
+			ids.remove(id);
+			return ids.isEmpty() ? null : ids;
+		});
+	}
+
+	private static Item copyOf(Item item) {
+		Item copy = new Item();
+		copy.setId(item.getId());
+		copy.setName(item.getName());
+		copy.setPrice(item.getPrice());
+		copy.setDescription(item.getDescription());
+		return copy;
+	}
+
+	private static String normalize(String text) {
+		if (text == null) {
+			return "";
+		}
+		StringBuilder normalized = new StringBuilder(text.length());
+		boolean space = true;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				normalized.append(Character.toLowerCase(c));
+				space = false;
+			} else if (!space) {
+				normalized.append(' ');
+				space = true;
+			}
+		}
+		return normalized.toString().trim();
+	}
+
+	/**
+	 * Document trigrams: every word is padded with two leading blanks and one
+	 * trailing blank so that one and two letter prefixes still have grams.
+	 */
+	private static Set<String> documentGrams(String text) {
+		Set<String> grams = new LinkedHashSet<>();
+		for (String word : text.split(" ")) {
+			if (!word.isEmpty()) {
+				addGrams(grams, "  " + word + " ");
+			}
+		}
+		return grams;
+	}
+
+	/**
+	 * Query trigrams: the last word is left unterminated so a partially typed
+	 * word matches as a prefix; words of three or more letters also contribute
+	 * their inner grams so substrings match.
+	 */
+	private static Set<String> queryGrams(String query) {
+		Set<String> grams = new LinkedHashSet<>();
+		String[] words = query.split(" ");
+		for (int i = 0; i < words.length; i++) {
+			String word = words[i];
+			if (word.length() >= GRAM) {
+				addGrams(grams, word);
+			} else {
+				addGrams(grams, "  " + word + (i < words.length - 1 ? " " : ""));
+			}
+		}
+		return grams;
+	}
+
+	private static void addGrams(Set<String> grams, String padded) {
+		for (int i = 0; i + GRAM <= padded.length(); i++) {
+			grams.add(padded.substring(i, i + GRAM));
+		}
+	}
+
+	private static final class Document {
+		private final Item item;
+		private final String name;
+		private final String description;
+		private final Set<String> grams;
+
+		private Document(Item item) {
+			this.item = item;
+			this.name = normalize(item.getName());
+			this.description = normalize(item.getDescription());
+			this.grams = documentGrams(name + " " + description);
+		}
+
+		private double score(String query, double similarity) {
+			double score = 0;
+			if (name.equals(query)) {
+				score += 4;
+			} else if (name.startsWith(query)) {
+				score += 3;
+			} else if (name.contains(query)) {
+				score += 2;
+			} else if (description.contains(query)) {
+				score += 1;
+			} else if (similarity < MIN_SIMILARITY) {
+				return 0;
+			}
+			return score + similarity;
+		}
+	}
+
+	private static final class Hit {
+		private final Item item;
+		private final double score;
+
+		private Hit(Item item, double score) {
+			this.item = item;
+			this.score = score;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.example.demo.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt encoder that hashes on a fixed-size pool instead of the calling
+ * request thread. At most {@code threads} hashes run at once and at most
+ * {@code queueCapacity} wait; anything beyond that, or anything that waits
+ * longer than {@code maxWaitMillis}, fails at once with
+ * {@link PasswordHashingBusyException} so a login burst cannot occupy every
+ * servlet thread.
+ */
+public class BoundedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedBCryptPasswordEncoder(int strength, int threads, int queueCapacity, long maxWaitMillis) {
+        this(strength, newExecutor(threads, queueCapacity), maxWaitMillis);
+    }
+
+    BoundedBCryptPasswordEncoder(int strength, ThreadPoolExecutor executor, long maxWaitMillis) {
+        super(strength);
+        this.executor = executor;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(() -> super.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(() -> super.matches(rawPassword, encodedPassword));
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getHashCount() {
+        return hashes.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public double getAverageHashMillis() {
+        long count = hashes.sum();
+        return count == 0 ? 0.0 : hashNanos.sum() / 1_000_000.0 / count;
+    }
+
+    private <T> T hash(Callable<T> work) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    hashNanos.add(System.nanoTime() - start);
+                    hashes.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing is saturated");
+        }
+        try {
+            return result.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "bcrypt-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.cache.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies bearer tokens with a single shared verifier and remembers the
+ * subject of tokens that already passed verification, keyed by a SHA-256
+ * digest of the token. A cached token is trusted until the earlier of its own
+ * expiry and the cache time-to-live; failures are never cached.
+ */
+@Component
+public class CachingTokenVerifier {
+
+    private static final JWTVerifier VERIFIER = JWT.require(Algorithm.HMAC512(SecurityConstants.SECRET.getBytes()))
+            .build();
+
+    private final LruCache<String, VerifiedToken> verified;
+
+    public CachingTokenVerifier(@Value("${ecommerce.security.token-cache.max-size:10000}") int maxSize,
+                                @Value("${ecommerce.security.token-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.verified = new LruCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the subject of a valid token.
+     *
+     * @throws JWTVerificationException if the token is malformed, forged or expired
+     */
+    public String verify(String token) {
+        String key = digest(token);
+        VerifiedToken cached = verified.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                return cached.subject;
+            }
+            verified.invalidate(key);
+        }
+        DecodedJWT jwt = VERIFIER.verify(token);
+        Date expiresAt = jwt.getExpiresAt();
+        if (jwt.getSubject() != null && expiresAt != null) {
+            verified.put(key, new VerifiedToken(jwt.getSubject(), expiresAt.getTime()));
+        }
+        return jwt.getSubject();
+    }
+
+    public long getHitCount() {
+        return verified.getHitCount();
+    }
+
+    public long getMissCount() {
+        return verified.getMissCount();
+    }
+
+    public int size() {
+        return verified.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class VerifiedToken {
+        private final String subject;
+        private final long expiresAt;
+
+        private VerifiedToken(String subject, long expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -35,6 +35,11 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
 
                 return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(credentials.getUsername(),
                         credentials.getPassword(), new ArrayList<>()));
+            } catch (PasswordHashingBusyException e) {
+                // Shed the login instead of failing it: the credentials were never checked.
+                res.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                res.setHeader("Retry-After", "1");
+                return null;
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
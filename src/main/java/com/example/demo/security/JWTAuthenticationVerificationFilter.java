@@ -1,7 +1,7 @@
 package com.example.demo.security;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.logging.RequestLoggingFilter;
+import org.slf4j.MDC;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,8 +16,11 @@ import java.util.ArrayList;
 
 public class JWTAuthenticationVerificationFilter extends BasicAuthenticationFilter {
 
-    public JWTAuthenticationVerificationFilter(AuthenticationManager authManager) {
+    private final CachingTokenVerifier tokenVerifier;
+
+    public JWTAuthenticationVerificationFilter(AuthenticationManager authManager, CachingTokenVerifier tokenVerifier) {
         super(authManager);
+        this.tokenVerifier = tokenVerifier;
     }
 
     @Override
@@ -40,12 +43,10 @@ public class JWTAuthenticationVerificationFilter extends BasicAuthenticationFilt
         String token = request.getHeader(SecurityConstants.HEADER_STRING);
         if (token != null) {
             // parse the token.
-            String user = JWT.require(Algorithm.HMAC512(SecurityConstants.SECRET.getBytes()))
-                    .build()
-                    .verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""))
-                    .getSubject();
+            String user = tokenVerifier.verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""));
 
             if (user != null) {
+                MDC.put(RequestLoggingFilter.USER, user);
                 return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
             }
             return null;
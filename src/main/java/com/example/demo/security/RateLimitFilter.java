@@ -0,0 +1,69 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.GenericFilterBean;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimiter} to the security filter chain. It is registered
+ * twice: ahead of the login filter for anonymous requests, keyed by client
+ * address, and after token verification for bearer requests, keyed by the
+ * JWT subject. Each instance only handles its own kind of request, except
+ * that login and sign-up are always limited by address in the first one: a
+ * bogus bearer header must not let them through unthrottled.
+ */
+public class RateLimitFilter extends GenericFilterBean {
+
+    private final RateLimiter rateLimiter;
+    private final boolean authenticated;
+
+    public RateLimitFilter(RateLimiter rateLimiter, boolean authenticated) {
+        this.rateLimiter = rateLimiter;
+        this.authenticated = authenticated;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        String caller = rateLimiter.isEnabled() ? caller(req) : null;
+        if (caller != null) {
+            long waitNanos = rateLimiter.tryAcquire(caller, req.getRequestURI());
+            if (waitNanos > 0) {
+                HttpServletResponse res = (HttpServletResponse) response;
+                res.setStatus(429);
+                res.setHeader("Retry-After", Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String caller(HttpServletRequest req) {
+        boolean byAddress = rateLimiter.isLimitedByAddress(req.getRequestURI());
+        if (authenticated) {
+            if (byAddress) {
+                return null;
+            }
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return authentication == null ? null : authentication.getName();
+        }
+        if (byAddress) {
+            return req.getRemoteAddr();
+        }
+        String header = req.getHeader(SecurityConstants.HEADER_STRING);
+        if (header != null && header.startsWith(SecurityConstants.TOKEN_PREFIX)) {
+            return null;
+        }
+        return req.getRemoteAddr();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket limits per caller and endpoint group. Each bucket is a single
+ * {@link AtomicLong} holding the time at which it will be full again (the
+ * GCRA form of a token bucket), so taking a token is one compare-and-set and
+ * never blocks. Buckets that have refilled completely carry no state and are
+ * dropped by a background sweep.
+ */
+@Component
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final Rule defaultRule;
+    private final ScheduledExecutorService evictor;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public RateLimiter(@Value("${ecommerce.ratelimit.enabled:true}") boolean enabled,
+                       @Value("${ecommerce.ratelimit.default.capacity:100}") int defaultCapacity,
+                       @Value("${ecommerce.ratelimit.default.refill-per-second:50}") double defaultRefill,
+                       @Value("${ecommerce.ratelimit.login.capacity:10}") int loginCapacity,
+                       @Value("${ecommerce.ratelimit.login.refill-per-second:1}") double loginRefill,
+                       @Value("${ecommerce.ratelimit.cart.capacity:30}") int cartCapacity,
+                       @Value("${ecommerce.ratelimit.cart.refill-per-second:10}") double cartRefill,
+                       @Value("${ecommerce.ratelimit.idle-sweep-seconds:60}") long idleSweepSeconds) {
+        this.enabled = enabled;
+        List<Rule> rules = new ArrayList<>();
+        rules.add(new Rule("login", "/login", loginCapacity, loginRefill, true));
+        rules.add(new Rule("signup", SecurityConstants.SIGN_UP_URL, loginCapacity, loginRefill, true));
+        rules.add(new Rule("cart", "/api/cart/", cartCapacity, cartRefill, false));
+        this.rules = Collections.unmodifiableList(rules);
+        this.defaultRule = new Rule("default", "/", defaultCapacity, defaultRefill, false);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, idleSweepSeconds, idleSweepSeconds, TimeUnit.SECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether {@code path} belongs to an endpoint group that is limited by
+     * client address whatever credentials the request carries. Login and
+     * sign-up are: they are served without a verified token, so a header
+     * cannot be allowed to move them out of the address bucket.
+     */
+    public boolean isLimitedByAddress(String path) {
+        return ruleFor(path).byAddress;
+    }
+
+    /**
+     * Takes one token from the caller's bucket for the endpoint group that
+     * {@code path} belongs to.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a
+     * token becomes available
+     */
+    public long tryAcquire(String caller, String path) {
+        Rule rule = ruleFor(path);
+        AtomicLong bucket = rule.buckets.get(caller);
+        if (bucket == null) {
+            bucket = rule.buckets.computeIfAbsent(caller, key -> new AtomicLong(Long.MIN_VALUE));
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long fullAt = bucket.get();
+            long start = fullAt == Long.MIN_VALUE || fullAt - now < 0 ? now : fullAt;
+            long next = start + rule.intervalNanos;
+            long wait = next - now - rule.burstNanos;
+            if (wait > 0) {
+                limited.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Rule rule : rules) {
+            evictIdle(rule, now);
+        }
+        evictIdle(defaultRule, now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getLimitedCount() {
+        return limited.sum();
+    }
+
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    public int getBucketCount() {
+        int count = defaultRule.buckets.size();
+        for (Rule rule : rules) {
+            count += rule.buckets.size();
+        }
+        return count;
+    }
+
+    private Rule ruleFor(String path) {
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if (path.startsWith(rule.pathPrefix)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    private void evictIdle(Rule rule, long now) {
+        for (Map.Entry<String, AtomicLong> entry : rule.buckets.entrySet()) {
+            long fullAt = entry.getValue().get();
+            if (fullAt == Long.MIN_VALUE || fullAt - now <= 0) {
+                if (rule.buckets.remove(entry.getKey(), entry.getValue())) {
+                    evicted.increment();
+                }
+            }
+        }
+    }
+
+    private static final class Rule {
+        private final String name;
+        private final String pathPrefix;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final boolean byAddress;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+        private Rule(String name, String pathPrefix, int capacity, double refillPerSecond, boolean byAddress) {
+            if (capacity <= 0 || refillPerSecond <= 0) {
+                throw new IllegalArgumentException("Rate limit " + name + " needs a positive capacity and refill rate");
+            }
+            this.name = name;
+            this.pathPrefix = pathPrefix;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burstNanos = intervalNanos * capacity;
+            this.byAddress = byAddress;
+        }
+    }
+}
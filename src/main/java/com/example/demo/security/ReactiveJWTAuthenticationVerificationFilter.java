@@ -0,0 +1,46 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link JWTAuthenticationVerificationFilter}. Every
+ * route behind it needs a bearer token; a missing or invalid one is answered
+ * with 401 before the handler runs. The verified subject is exposed as the
+ * exchange principal.
+ */
+public class ReactiveJWTAuthenticationVerificationFilter implements WebFilter {
+
+    private final CachingTokenVerifier tokenVerifier;
+
+    public ReactiveJWTAuthenticationVerificationFilter(CachingTokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(SecurityConstants.HEADER_STRING);
+        if (header == null || !header.startsWith(SecurityConstants.TOKEN_PREFIX)) {
+            return unauthorized(exchange);
+        }
+        String user;
+        try {
+            user = tokenVerifier.verify(header.substring(SecurityConstants.TOKEN_PREFIX.length()));
+        } catch (JWTVerificationException e) {
+            return unauthorized(exchange);
+        }
+        if (user == null) {
+            return unauthorized(exchange);
+        }
+        return chain.filter(exchange.mutate().principal(Mono.just(() -> user)).build());
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.startup;
+
+import javax.servlet.Filter;
+import javax.servlet.Servlet;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.web.server.WebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.ServletContextInitializer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+/**
+ * Marks every singleton that does not serve web traffic as lazy, so it is
+ * created on first use instead of during startup. Controllers, servlet
+ * filters, the embedded server and anything whose type cannot be worked out
+ * from its definition stay eager, which keeps the first request as fast as
+ * before. This is the fast-startup counterpart of the lazy initialization
+ * switch that later Spring Boot versions provide.
+ */
+@Component
+@Profile("fast-startup")
+public class LazyInitializationPostProcessor implements BeanFactoryPostProcessor {
+
+	private static final Class<?>[] EAGER_TYPES = { Filter.class, Servlet.class, ServletContextInitializer.class,
+			WebServerFactory.class, WebServerFactoryCustomizer.class, BeanPostProcessor.class,
+			BeanFactoryPostProcessor.class, SmartInitializingSingleton.class };
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		ClassLoader classLoader = beanFactory.getBeanClassLoader();
+		for (String name : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition definition = beanFactory.getBeanDefinition(name);
+			if (definition.isSingleton() && !definition.isLazyInit()
+					&& definition.getRole() == BeanDefinition.ROLE_APPLICATION) {
+				Class<?> type = typeOf(definition, classLoader);
+				if (type != null && !isWeb(type)) {
+					definition.setLazyInit(true);
+				}
+			}
+		}
+	}
+
+	private static boolean isWeb(Class<?> type) {
+		for (Class<?> eager : EAGER_TYPES) {
+			if (eager.isAssignableFrom(type)) {
+				return true;
+			}
+		}
+		return AnnotatedElementUtils.hasAnnotation(type, Controller.class)
+				|| AnnotatedElementUtils.hasAnnotation(type, ControllerAdvice.class);
+	}
+
+	private static Class<?> typeOf(BeanDefinition definition, ClassLoader classLoader) {
+		String className = definition.getBeanClassName();
+		if (definition.getFactoryMethodName() != null) {
+			MethodMetadata factoryMethod = definition instanceof AnnotatedBeanDefinition
+					? ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata()
+					: null;
+			className = factoryMethod == null ? null : factoryMethod.getReturnTypeName();
+		}
+		if (className == null) {
+			return null;
+		}
+		try {
+			return ClassUtils.forName(className, classLoader);
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+}
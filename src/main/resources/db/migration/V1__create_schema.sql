@@ -0,0 +1,65 @@
+create sequence cart_line_seq start with 1 increment by 50;
+create sequence cart_seq start with 1 increment by 50;
+create sequence item_seq start with 3 increment by 50;
+create sequence user_order_seq start with 1 increment by 50;
+create sequence user_seq start with 1 increment by 50;
+
+create table item (
+	id bigint not null,
+	description varchar(255) not null,
+	name varchar(255) not null,
+	price decimal(19,2) not null,
+	primary key (id)
+);
+
+create table cart (
+	id bigint not null,
+	total decimal(19,2),
+	version bigint,
+	primary key (id)
+);
+
+create table user (
+	id bigint not null,
+	password varchar(255) not null,
+	username varchar(255) not null,
+	cart_id bigint,
+	primary key (id),
+	constraint uk_user_username unique (username),
+	constraint fk_user_cart foreign key (cart_id) references cart
+);
+
+create table cart_line (
+	id bigint not null,
+	quantity integer not null,
+	unit_price decimal(19,2) not null,
+	cart_id bigint not null,
+	item_id bigint not null,
+	primary key (id),
+	constraint uk_cart_line_cart_item unique (cart_id, item_id),
+	constraint fk_cart_line_cart foreign key (cart_id) references cart,
+	constraint fk_cart_line_item foreign key (item_id) references item
+);
+
+create table user_order (
+	id bigint not null,
+	created_at timestamp,
+	reference varchar(36) not null,
+	total decimal(19,2),
+	user_id bigint not null,
+	primary key (id),
+	constraint uk_user_order_reference unique (reference),
+	constraint fk_user_order_user foreign key (user_id) references user
+);
+
+create table order_line (
+	line_no integer not null,
+	order_id bigint not null,
+	item_id bigint not null,
+	name varchar(255) not null,
+	quantity integer not null,
+	unit_price decimal(19,2) not null,
+	-- Order lines are always read by order, so the order id leads the key
+	primary key (order_id, line_no),
+	constraint fk_order_line_order foreign key (order_id) references user_order
+);
@@ -0,0 +1,11 @@
+-- ItemRepository.findByName
+create index idx_item_name on item (name);
+
+-- OrderRepository.findByUser and findSummariesBefore (user_id = ? and id < ? order by id desc)
+create index idx_user_order_user_id on user_order (user_id, id);
+
+-- Loading a cart resolves its owner through user.cart_id
+create index idx_user_cart_id on user (cart_id);
+
+-- Cart lines are read by cart through uk_cart_line_cart_item; this covers the item side of the join
+create index idx_cart_line_item_id on cart_line (item_id);
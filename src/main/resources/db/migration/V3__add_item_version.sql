@@ -0,0 +1,2 @@
+-- Item payloads are cached per id and version
+alter table item add column version bigint default 0 not null;
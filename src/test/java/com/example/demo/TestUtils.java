@@ -3,8 +3,12 @@ package com.example.demo;
 
 import org.mockito.internal.util.reflection.FieldSetter;
 import java.math.BigDecimal;
+import java.util.concurrent.Callable;
 
 import com.example.demo.model.persistence.*;
+import com.example.demo.querystats.QueryStats;
+
+import static org.junit.Assert.assertTrue;
 
 public class TestUtils {
 
@@ -41,5 +45,35 @@ public class TestUtils {
         cart.addItem(item2);
         return cart;
     }
-}
 
+    /**
+     * Runs {@code call} on the current thread and returns the SQL it ran,
+     * including requests performed through MockMvc. Needs the query counting
+     * data source of a Spring context.
+     */
+    public static QueryStats countQueries(Callable<?> call) throws Exception {
+        QueryStats stats = QueryStats.start();
+        try {
+            call.call();
+            return stats;
+        } finally {
+            QueryStats.stop();
+        }
+    }
+
+    /**
+     * Runs {@code call} and fails if it needed more than {@code maxStatements}
+     * SQL statements.
+     */
+    public static <T> T assertMaxQueries(int maxStatements, Callable<T> call) throws Exception {
+        QueryStats stats = QueryStats.start();
+        try {
+            T result = call.call();
+            assertTrue("expected at most " + maxStatements + " statements but ran " + stats,
+                    stats.getStatementCount() <= maxStatements);
+            return result;
+        } finally {
+            QueryStats.stop();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.admission;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AdmissionFilterTest {
+
+    private final StubPool pool = new StubPool();
+    private final ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(() -> pool, 10, 20, 250, 10, 60_000);
+    private final AdmissionFilter filter = new AdmissionFilter(monitor, true,
+            new String[]{"/api/item/**"}, new String[]{"/api/order/submit/**", "/login"});
+
+    @Test
+    public void routes_are_mapped_to_priorities() {
+        assertEquals(Priority.LOW, filter.priorityOf("/api/item/page"));
+        assertEquals(Priority.CRITICAL, filter.priorityOf("/api/order/submit/alice"));
+        assertEquals(Priority.NORMAL, filter.priorityOf("/api/cart/addToCart"));
+    }
+
+    @Test
+    public void idle_pool_admits_everything() {
+        assertEquals(PoolPressure.NORMAL, monitor.getPressure());
+
+        assertAdmitted("/api/item/page");
+        assertAdmitted("/api/cart/addToCart");
+    }
+
+    @Test
+    public void busy_pool_sheds_catalog_browsing_only() {
+        pool.active = 10;
+        assertEquals(PoolPressure.ELEVATED, monitor.getPressure());
+
+        assertShed("/api/item/page");
+        assertAdmitted("/api/cart/addToCart");
+        assertAdmitted("/api/order/submit/alice");
+        assertEquals(1, filter.getShedCount(Priority.LOW));
+    }
+
+    @Test
+    public void saturated_pool_keeps_checkout_running() {
+        pool.active = 10;
+        pool.waiting = 12;
+        assertEquals(PoolPressure.SATURATED, monitor.getPressure());
+
+        assertShed("/api/item/page");
+        assertShed("/api/cart/addToCart");
+        assertAdmitted("/api/order/submit/alice");
+        assertEquals(1, filter.getShedCount(Priority.NORMAL));
+        assertEquals(1, filter.getAdmittedCount(Priority.CRITICAL));
+    }
+
+    @Test
+    public void slow_acquisition_and_timeouts_raise_pressure() {
+        monitor.recordAcquire(50_000_000L);
+        assertEquals(PoolPressure.ELEVATED, monitor.getPressure());
+
+        monitor.recordTimeout();
+        assertEquals(PoolPressure.SATURATED, monitor.getPressure());
+    }
+
+    @Test
+    public void pressure_clears_after_a_quiet_window() throws InterruptedException {
+        ConnectionPoolMonitor shortWindow = new ConnectionPoolMonitor(() -> pool, 10, 20, 250, 10, 10);
+        shortWindow.recordAcquire(500_000_000L);
+        assertEquals(PoolPressure.SATURATED, shortWindow.getPressure());
+
+        Thread.sleep(20);
+        assertEquals(PoolPressure.NORMAL, shortWindow.getPressure());
+    }
+
+    private void assertAdmitted(String path) {
+        MockFilterChain chain = doFilter(path, new MockHttpServletResponse());
+        assertNotNull(chain.getRequest());
+    }
+
+    private void assertShed(String path) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = doFilter(path, response);
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+    }
+
+    private MockFilterChain doFilter(String path, MockHttpServletResponse response) {
+        MockFilterChain chain = new MockFilterChain();
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", path), response, chain);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        return chain;
+    }
+
+    private static final class StubPool implements HikariPoolMXBean {
+        private int active;
+        private int waiting;
+
+        @Override
+        public int getIdleConnections() {
+            return 10 - active;
+        }
+
+        @Override
+        public int getActiveConnections() {
+            return active;
+        }
+
+        @Override
+        public int getTotalConnections() {
+            return 10;
+        }
+
+        @Override
+        public int getThreadsAwaitingConnection() {
+            return waiting;
+        }
+
+        @Override
+        public void softEvictConnections() {
+        }
+
+        @Override
+        public void suspendPool() {
+        }
+
+        @Override
+        public void resumePool() {
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.ECommerceApplication;
+import com.example.demo.cart.CartLocks;
+import com.example.demo.cart.CartStore;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eight threads adding to one hot cart, with and without the per-cart lock.
+ * The locked run queues writers on {@link CartLocks}; the unlocked run lets
+ * them race and retries every write rejected by the cart's version check,
+ * counting the retries as {@code conflicts}. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.demo.benchmarks.CartContentionBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CartContentionBenchmark {
+
+    private static final String USERNAME = "hotcart-benchmark";
+
+    @State(Scope.Benchmark)
+    public static class Application {
+        private ConfigurableApplicationContext context;
+        private CartLocks cartLocks;
+        private CartStore cartStore;
+        private UserRepository userRepository;
+        private ItemRepository itemRepository;
+        private TransactionTemplate transactionTemplate;
+        private long itemId;
+
+        @Setup
+        public void setUp() {
+            context = new SpringApplicationBuilder(ECommerceApplication.class)
+                    .run("--server.port=0",
+                            "--management.server.port=0",
+                            "--ecommerce.ratelimit.enabled=false",
+                            "--ecommerce.admission.enabled=false");
+            cartLocks = context.getBean(CartLocks.class);
+            cartStore = context.getBean(CartStore.class);
+            userRepository = context.getBean(UserRepository.class);
+            itemRepository = context.getBean(ItemRepository.class);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+            itemId = itemRepository.findAll().get(0).getId();
+            if (userRepository.findByUsername(USERNAME) == null) {
+                User user = new User();
+                user.setUsername(USERNAME);
+                user.setPassword("unused");
+                user.setCart(new Cart());
+                userRepository.save(user);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+
+        private Void addOne() {
+            return transactionTemplate.execute(status -> {
+                Cart cart = cartStore.getCart(userRepository.findByUsername(USERNAME));
+                cart.addItem(itemRepository.findById(itemId).get(), 1);
+                cartStore.save(cart);
+                return null;
+            });
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflicts {
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    public Void locked(Application application) {
+        return application.cartLocks.withLock(USERNAME, application::addOne);
+    }
+
+    @Benchmark
+    public Void unlocked(Application application, Conflicts conflicts) {
+        while (true) {
+            try {
+                return application.addOne();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.conflicts++;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartContentionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.security.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of {@link RateLimiter#tryAcquire} under contention: eight threads on
+ * one hot bucket, and eight threads each spread over their own callers. Run
+ * with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.demo.benchmarks.RateLimiterBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+        private RateLimiter rateLimiter;
+
+        @Setup
+        public void setUp() {
+            rateLimiter = new RateLimiter(true, 1_000_000, 1_000_000_000, 1_000_000, 1_000_000_000, 1_000_000,
+                    1_000_000_000, 3600);
+        }
+
+        @TearDown
+        public void tearDown() {
+            rateLimiter.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Callers {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private final String[] callers = new String[1024];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            int thread = THREADS.incrementAndGet();
+            for (int i = 0; i < callers.length; i++) {
+                callers[i] = "user-" + thread + "-" + i;
+            }
+        }
+    }
+
+    @Benchmark
+    public long hotBucket(Limiter limiter) {
+        return limiter.rateLimiter.tryAcquire("hot", "/api/cart/addToCart");
+    }
+
+    @Benchmark
+    public long spreadCallers(Limiter limiter, Callers callers) {
+        String caller = callers.callers[callers.next++ & (callers.callers.length - 1)];
+        return limiter.rateLimiter.tryAcquire(caller, "/api/order/history");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.ECommerceApplication;
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.reactive.ReactiveServer;
+import com.example.demo.security.SecurityConstants;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the same read endpoints on the servlet port and on the reactive port
+ * of one application and prints requests per second and latency percentiles
+ * for each. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.demo.benchmarks.ThroughputComparison
+ * -Dexec.args="<concurrency> <seconds>"}; the defaults are 1000 concurrent
+ * connections for 10 seconds per stack.
+ */
+public class ThroughputComparison {
+
+    public static void main(String[] args) {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ECommerceApplication.class)
+                .profiles("reactive")
+                .run("--server.port=0",
+                        "--ecommerce.reactive.port=0",
+                        "--management.server.port=0",
+                        "--ecommerce.ratelimit.enabled=false",
+                        "--ecommerce.admission.enabled=false",
+                        "--server.tomcat.max-connections=" + Math.max(10_000, concurrency))) {
+            int servletPort = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            int reactivePort = context.getBean(ReactiveServer.class).getPort();
+            String username = createUser(servletPort);
+            String bearer = SecurityConstants.TOKEN_PREFIX + JWT.create()
+                    .withSubject(username)
+                    .withExpiresAt(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                    .sign(Algorithm.HMAC512(SecurityConstants.SECRET.getBytes()));
+            List<String> paths = Arrays.asList("/api/item/1", "/api/item/page?size=2",
+                    "/api/order/history/" + username + "/summary");
+
+            for (String stack : Arrays.asList("servlet", "reactive")) {
+                int port = "servlet".equals(stack) ? servletPort : reactivePort;
+                run(stack + " (warm-up)", port, bearer, paths, concurrency, Math.max(1, seconds / 5));
+                run(stack, port, bearer, paths, concurrency, seconds);
+            }
+        }
+    }
+
+    private static String createUser(int port) {
+        String username = "throughput-" + UUID.randomUUID();
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setConfirmPassword("password123");
+        new RestTemplate().postForEntity("http://localhost:" + port + "/api/user/create", request, String.class);
+        return username;
+    }
+
+    private static void run(String name, int port, String bearer, List<String> paths, int concurrency, int seconds) {
+        ConnectionProvider connections = ConnectionProvider.fixed("throughput-" + port, concurrency);
+        HttpClient client = HttpClient.create(connections)
+                .baseUrl("http://localhost:" + port)
+                .headers(headers -> headers.set(SecurityConstants.HEADER_STRING, bearer));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        LongAdder errors = new LongAdder();
+        List<long[]> latencies = new ArrayList<>();
+
+        long start = System.nanoTime();
+        Flux.range(0, concurrency)
+                .flatMap(worker -> {
+                    Recorder recorder = new Recorder();
+                    synchronized (latencies) {
+                        latencies.add(recorder.samples);
+                    }
+                    return Mono.defer(() -> {
+                        String path = paths.get(recorder.count % paths.size());
+                        long sent = System.nanoTime();
+                        return client.get().uri(path)
+                                .responseSingle((response, body) -> body.then(Mono.just(response.status())))
+                                .doOnNext(status -> {
+                                    if (!HttpResponseStatus.OK.equals(status)) {
+                                        errors.increment();
+                                    }
+                                    recorder.record(System.nanoTime() - sent);
+                                })
+                                .onErrorResume(e -> {
+                                    errors.increment();
+                                    return Mono.empty();
+                                });
+                    }).repeat(() -> System.nanoTime() < deadline);
+                }, concurrency)
+                .blockLast();
+        long elapsed = System.nanoTime() - start;
+        connections.dispose();
+
+        long[] all = latencies.stream().flatMapToLong(samples -> Arrays.stream(samples).filter(sample -> sample > 0))
+                .sorted().toArray();
+        double perSecond = all.length / (elapsed / 1e9);
+        System.out.printf("%-20s %,10.0f req/s  p50 %7.2f ms  p99 %7.2f ms  errors %d%n", name, perSecond,
+                percentile(all, 0.50), percentile(all, 0.99), errors.sum());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * quantile))] / 1e6;
+    }
+
+    /**
+     * Latencies of one connection. Only the latest samples are kept so memory
+     * stays flat however long the run is.
+     */
+    private static final class Recorder {
+        private final long[] samples = new long[4096];
+        private int count;
+
+        private void record(long nanos) {
+            samples[count % samples.length] = nanos;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LruCacheTest {
+
+    private final LruCache<Long, String> cache = new LruCache<>(10, 1, TimeUnit.HOURS);
+
+    @Test
+    public void caches_loaded_values() {
+        assertEquals("loaded", cache.get(1L, key -> "loaded"));
+        assertEquals("loaded", cache.get(1L, key -> "reloaded"));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void does_not_cache_a_value_invalidated_while_it_was_loading() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> cache.get(1L, key -> {
+            loading.countDown();
+            await(invalidated);
+            return "stale";
+        }));
+
+        loading.await(5, TimeUnit.SECONDS);
+        cache.invalidate(1L);
+        invalidated.countDown();
+
+        assertEquals("stale", load.get(5, TimeUnit.SECONDS));
+        assertNull(cache.get(1L));
+        assertEquals("fresh", cache.get(1L, key -> "fresh"));
+        assertEquals("fresh", cache.get(1L));
+    }
+
+    @Test
+    public void does_not_cache_a_value_loading_across_invalidate_all() throws Exception {
+        assertEquals("stale", cache.get(2L, key -> {
+            cache.invalidateAll();
+            return "stale";
+        }));
+
+        assertNull(cache.get(2L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
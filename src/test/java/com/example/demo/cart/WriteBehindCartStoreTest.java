@@ -0,0 +1,158 @@
+package com.example.demo.cart;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "ecommerce.cart.write-behind.enabled=true",
+        "ecommerce.cart.write-behind.flush-interval-ms=3600000"
+})
+public class WriteBehindCartStoreTest {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartLocks cartLocks;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Item item;
+
+    @Before
+    public void setUp() {
+        item = itemRepository.findAll().get(0);
+    }
+
+    @Test
+    public void changes_reach_the_database_only_when_flushed() {
+        assertTrue(cartStore instanceof WriteBehindCartStore);
+        createUser("writebehind1");
+
+        Long cartId = addToCart("writebehind1", 3);
+        assertEquals(0, lineQuantity(cartId));
+        assertTrue(((WriteBehindCartStore) cartStore).getPendingCarts() > 0);
+
+        ((WriteBehindCartStore) cartStore).flushAll();
+        assertEquals(3, lineQuantity(cartId));
+        assertEquals(0, item.getPrice().multiply(BigDecimal.valueOf(3)).compareTo(
+                jdbcTemplate.queryForObject("select total from cart where id = ?", BigDecimal.class, cartId)));
+    }
+
+    @Test
+    public void flush_for_user_writes_pending_changes() {
+        createUser("writebehind2");
+        Long cartId = addToCart("writebehind2", 2);
+        addToCart("writebehind2", 1);
+        assertEquals(0, lineQuantity(cartId));
+
+        transactionTemplate.execute(status -> {
+            cartStore.flush(userRepository.findByUsername("writebehind2"));
+            return null;
+        });
+
+        assertEquals(3, lineQuantity(cartId));
+    }
+
+    @Test
+    public void flush_for_user_waits_for_a_background_write_in_progress() throws Exception {
+        createUser("writebehind3");
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JdbcTemplate slowJdbcTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                if (sql.startsWith("delete") && writing.getCount() > 0) {
+                    writing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.batchUpdate(sql, batchArgs);
+            }
+        };
+        WriteBehindCartStore store = new WriteBehindCartStore(slowJdbcTemplate, transactionTemplate, cartLocks,
+                3600000, 500, 900);
+        try {
+            User user = userRepository.findByUsername("writebehind3");
+            Cart cart = transactionTemplate.execute(status -> store.getCart(userRepository.findByUsername("writebehind3")));
+            cart.addItem(item, 2);
+            store.save(cart);
+
+            CompletableFuture<Void> background = CompletableFuture.runAsync(store::flushAll);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Void> flush = CompletableFuture.runAsync(() -> store.flush(user));
+            Thread.sleep(200);
+            assertFalse(flush.isDone());
+
+            release.countDown();
+            flush.get(5, TimeUnit.SECONDS);
+            assertEquals(2, lineQuantity(cart.getId()));
+            background.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            store.shutdown();
+        }
+    }
+
+    private void createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        user.setCart(new Cart());
+        userRepository.save(user);
+    }
+
+    private Long addToCart(String username, int quantity) {
+        return transactionTemplate.execute(status -> cartLocks.withLock(username, () -> {
+            Cart cart = cartStore.getCart(userRepository.findByUsername(username));
+            cart.addItem(item, quantity);
+            cartStore.save(cart);
+            return cart.getId();
+        }));
+    }
+
+    private int lineQuantity(Long cartId) {
+        Integer quantity = jdbcTemplate.queryForObject(
+                "select coalesce(sum(quantity), 0) from cart_line where cart_id = ?", Integer.class, cartId);
+        return quantity;
+    }
+}
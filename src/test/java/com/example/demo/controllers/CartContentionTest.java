@@ -0,0 +1,109 @@
+package com.example.demo.controllers;
+
+import com.auth0.jwt.JWT;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.security.SecurityConstants;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Sends concurrent adds for a single hot cart through the full HTTP stack and
+ * checks that no update is lost. Throughput under contention is measured by
+ * {@link com.example.demo.benchmarks.CartContentionBenchmark}.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "ecommerce.ratelimit.enabled=false")
+@AutoConfigureMockMvc
+public class CartContentionTest {
+
+    private static final int THREADS = 4;
+    private static final int REQUESTS_PER_THREAD = 10;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String token;
+
+    @Before
+    public void setUp() {
+        if (userRepository.findByUsername("hotcart") == null) {
+            User user = new User();
+            user.setUsername("hotcart");
+            user.setPassword("unused");
+            user.setCart(new Cart());
+            userRepository.save(user);
+        }
+        token = SecurityConstants.TOKEN_PREFIX + JWT.create()
+                .withSubject("hotcart")
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+                .sign(HMAC512(SecurityConstants.SECRET.getBytes()));
+    }
+
+    @Test
+    public void concurrent_adds_to_one_cart_are_not_lost() throws Exception {
+        long itemId = itemRepository.findAll().get(0).getId();
+        String body = "{\"username\":\"hotcart\",\"itemId\":" + itemId + ",\"quantity\":1}";
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            failures.add(executor.submit(() -> {
+                int failed = 0;
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    int status = mvc.perform(post("/api/cart/addToCart")
+                            .header(SecurityConstants.HEADER_STRING, token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                            .andReturn().getResponse().getStatus();
+                    if (status != 200) {
+                        failed++;
+                    }
+                }
+                return failed;
+            }));
+        }
+        int failed = 0;
+        for (Future<Integer> future : failures) {
+            failed += future.get();
+        }
+        executor.shutdown();
+
+        int total = THREADS * REQUESTS_PER_THREAD;
+
+        int quantity = transactionTemplate.execute(status ->
+                userRepository.findByUsername("hotcart").getCart().getLines().get(0).getQuantity());
+        assertEquals(0, failed);
+        assertEquals(total, quantity);
+    }
+}
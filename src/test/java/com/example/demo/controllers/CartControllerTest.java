@@ -1,16 +1,26 @@
 package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
+import com.example.demo.cache.ItemCache;
+import com.example.demo.cache.ItemPayloads;
+import com.example.demo.cart.CartLocks;
+import com.example.demo.cart.JpaCartStore;
+import com.example.demo.identity.UserIdentityIndex;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartItemChange;
+import com.example.demo.model.requests.ModifyCartBatchRequest;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.responses.CartResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -18,12 +28,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
@@ -36,6 +54,8 @@ public class CartControllerTest {
 
     private CartController cartController;
 
+    private ItemPayloads itemPayloads;
+
     @Mock
     private UserRepository userRepository;
 
@@ -45,12 +65,24 @@ public class CartControllerTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemRepository catalog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Before
     public void setUp() {
+        // unless a test says otherwise, the catalog has nothing newer than the cart's own copies
+        when(catalog.findById(Mockito.any())).thenReturn(Optional.empty());
+        itemPayloads = new ItemPayloads(new ObjectMapper(), new ItemCache(100, 300), catalog, 100, 300);
         cartController = new CartController();
-        TestUtils.injectObjects(cartController, "userRepository", userRepository);
-        TestUtils.injectObjects(cartController, "cartRepository", cartRepository);
+        TestUtils.injectObjects(cartController, "userIdentityIndex", new UserIdentityIndex(userRepository, cartRepository, 100));
+        TestUtils.injectObjects(cartController, "cartStore", new JpaCartStore(cartRepository));
         TestUtils.injectObjects(cartController, "itemRepository", itemRepository);
+        TestUtils.injectObjects(cartController, "cartLocks", new CartLocks(16, 1000));
+        TestUtils.injectObjects(cartController, "itemPayloads", itemPayloads);
+        TestUtils.injectObjects(cartController, "transactionTemplate", new TransactionTemplate(transactionManager));
     }
 
     @Test
@@ -69,13 +101,14 @@ public class CartControllerTest {
         request.setQuantity(5);
         request.setUsername("username");
 
-        ResponseEntity<Cart> response = cartController.addTocart(request);
+        ResponseEntity<CartResponse> response = cartController.addTocart(request);
         assertNotNull(response);
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
-        Cart returnedCart = response.getBody();
+        CartResponse returnedCart = response.getBody();
 
         assertNotNull(returnedCart);
-        assertEquals(returnedCart, cart);
+        assertEquals(cart.getTotal(), returnedCart.getTotal());
+        assertEquals(cart.getLines().size(), returnedCart.getLines().size());
         Mockito.verify(userRepository, times(1)).findByUsername("username");
         Mockito.verify(itemRepository, times(1)).findById(1L);
     }
@@ -89,7 +122,7 @@ public class CartControllerTest {
         request.setQuantity(5);
         request.setUsername("username");
 
-        ResponseEntity<Cart> response = cartController.addTocart(request);
+        ResponseEntity<CartResponse> response = cartController.addTocart(request);
 
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
@@ -104,7 +137,7 @@ public class CartControllerTest {
         request.setQuantity(5);
         request.setUsername("username");
 
-        ResponseEntity<Cart> response = cartController.addTocart(request);
+        ResponseEntity<CartResponse> response = cartController.addTocart(request);
 
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
@@ -126,13 +159,14 @@ public class CartControllerTest {
         request.setQuantity(5);
         request.setUsername("username");
 
-        ResponseEntity<Cart> response = cartController.removeFromcart(request);
+        ResponseEntity<CartResponse> response = cartController.removeFromcart(request);
         assertNotNull(response);
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
-        Cart returnedCart = response.getBody();
+        CartResponse returnedCart = response.getBody();
 
         assertNotNull(returnedCart);
-        assertEquals(returnedCart, cart);
+        assertEquals(cart.getTotal(), returnedCart.getTotal());
+        assertEquals(cart.getLines().size(), returnedCart.getLines().size());
         Mockito.verify(userRepository, times(1)).findByUsername("username");
         Mockito.verify(itemRepository, times(1)).findById(1L);
     }
@@ -146,7 +180,7 @@ public class CartControllerTest {
         request.setQuantity(5);
         request.setUsername("username");
 
-        ResponseEntity<Cart> response = cartController.removeFromcart(request);
+        ResponseEntity<CartResponse> response = cartController.removeFromcart(request);
 
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
@@ -161,9 +195,190 @@ public class CartControllerTest {
         request.setQuantity(5);
         request.setUsername("username");
 
-        ResponseEntity<Cart> response = cartController.removeFromcart(request);
+        ResponseEntity<CartResponse> response = cartController.removeFromcart(request);
 
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
     }
+
+    @Test
+    public void add_items_to_cart_aggregates_quantity() {
+        User user = TestUtils.createUser("username", "password");
+        Cart cart = new Cart();
+        cart.setId(1L);
+        user.setCart(cart);
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        when(cartRepository.getOne(1L)).thenReturn(cart);
+
+        Item item1 = TestUtils.createItem(1L, "Item 1", "Item 1 Description", BigDecimal.TEN);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+
+        ModifyCartRequest request = new ModifyCartRequest();
+        request.setItemId(1);
+        request.setQuantity(500);
+        request.setUsername("username");
+
+        cartController.addTocart(request);
+        ResponseEntity<CartResponse> response = cartController.addTocart(request);
+        CartResponse returnedCart = response.getBody();
+
+        assertNotNull(returnedCart);
+        assertEquals(1, returnedCart.getLines().size());
+        assertEquals(1000, returnedCart.getLine(1L).getQuantity());
+        assertEquals(BigDecimal.valueOf(10000), returnedCart.getTotal());
+        Mockito.verify(userRepository, times(1)).findByUsername("username");
+    }
+
+    @Test
+    public void remove_item_not_in_cart_keeps_total() {
+        User user = TestUtils.createUser("username", "password");
+        Cart cart = TestUtils.createCart();
+        user.setCart(cart);
+        when(userRepository.findByUsername("username")).thenReturn(user);
+
+        Item item3 = TestUtils.createItem(3L, "Item 3", "Item 3 Description", BigDecimal.ONE);
+        when(itemRepository.findById(3L)).thenReturn(Optional.of(item3));
+
+        ModifyCartRequest request = new ModifyCartRequest();
+        request.setItemId(3);
+        request.setQuantity(2);
+        request.setUsername("username");
+
+        ResponseEntity<CartResponse> response = cartController.removeFromcart(request);
+        CartResponse returnedCart = response.getBody();
+
+        assertNotNull(returnedCart);
+        assertEquals(2, returnedCart.getLines().size());
+        assertEquals(BigDecimal.valueOf(30), returnedCart.getTotal());
+    }
+
+    @Test
+    public void modify_cart_applies_all_changes_with_one_save() {
+        User user = TestUtils.createUser("username", "password");
+        Cart cart = TestUtils.createCart();
+        user.setCart(cart);
+        when(userRepository.findByUsername("username")).thenReturn(user);
+
+        Item item1 = TestUtils.createItem(1L, "Item 1", "Description 1", BigDecimal.TEN);
+        Item item3 = TestUtils.createItem(3L, "Item 3", "Description 3", BigDecimal.ONE);
+        when(itemRepository.findAllById(new HashSet<>(Arrays.asList(1L, 3L)))).thenReturn(Arrays.asList(item1, item3));
+
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("username");
+        request.setChanges(Arrays.asList(change(3L, 4), change(1L, -1)));
+
+        ResponseEntity<CartResponse> response = cartController.modifyCart(request);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
+        CartResponse returnedCart = response.getBody();
+
+        assertNotNull(returnedCart);
+        assertEquals(2, returnedCart.getLines().size());
+        assertEquals(4, returnedCart.getLine(3L).getQuantity());
+        assertEquals(BigDecimal.valueOf(24), returnedCart.getTotal());
+        Mockito.verify(itemRepository, never()).findById(Mockito.anyLong());
+        Mockito.verify(cartRepository, times(1)).save(cart);
+    }
+
+    @Test
+    public void modify_cart_loads_items_and_saves_in_one_transaction() {
+        User user = TestUtils.createUser("username", "password");
+        Cart cart = TestUtils.createCart();
+        user.setCart(cart);
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        Item item3 = TestUtils.createItem(3L, "Item 3", "Description 3", BigDecimal.ONE);
+        when(itemRepository.findAllById(Collections.singleton(3L))).thenReturn(Collections.singletonList(item3));
+
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("username");
+        request.setChanges(Arrays.asList(change(3L, 2)));
+
+        cartController.modifyCart(request);
+
+        InOrder inOrder = Mockito.inOrder(transactionManager, itemRepository, cartRepository);
+        inOrder.verify(transactionManager).getTransaction(Mockito.any());
+        inOrder.verify(itemRepository).findAllById(Collections.singleton(3L));
+        inOrder.verify(cartRepository).save(cart);
+        inOrder.verify(transactionManager).commit(Mockito.any());
+        Mockito.verify(transactionManager, times(1)).getTransaction(Mockito.any());
+    }
+
+    @Test
+    public void modify_cart_with_invalid_item() {
+        User user = TestUtils.createUser("username", "password");
+        Cart cart = TestUtils.createCart();
+        user.setCart(cart);
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        when(itemRepository.findAllById(Mockito.any())).thenReturn(Collections.emptyList());
+
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("username");
+        request.setChanges(Arrays.asList(change(9L, 1)));
+
+        ResponseEntity<CartResponse> response = cartController.modifyCart(request);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
+        assertEquals(BigDecimal.valueOf(30), cart.getTotal());
+        Mockito.verify(cartRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    public void modify_cart_with_invalid_user() {
+        when(userRepository.findByUsername("username")).thenReturn(null);
+
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("username");
+        request.setChanges(Arrays.asList(change(1L, 1)));
+
+        ResponseEntity<CartResponse> response = cartController.modifyCart(request);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
+    }
+
+    @Test
+    public void cart_response_splices_encoded_items() throws Exception {
+        User user = TestUtils.createUser("username", "password");
+        Cart cart = TestUtils.createCart();
+        cart.setId(1L);
+        cart.setUser(user);
+        user.setCart(cart);
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        when(cartRepository.getOne(1L)).thenReturn(cart);
+
+        Item item1 = cart.getLines().get(0).getItem();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+
+        ModifyCartRequest request = new ModifyCartRequest();
+        request.setItemId(1);
+        request.setQuantity(1);
+        request.setUsername("username");
+
+        cartController.addTocart(request);
+        ResponseEntity<CartResponse> response = cartController.addTocart(request);
+
+        String json = new ObjectMapper().writeValueAsString(response.getBody());
+        assertTrue(json.contains("\"item\":{\"id\":1,\"name\":\"Item 1\""));
+        assertFalse(json.contains("\"user\""));
+        assertEquals(2, itemPayloads.getEncodedCount());
+        assertEquals(2, itemPayloads.getHitCount());
+    }
+
+    @Test
+    public void cart_response_encodes_the_current_item_rather_than_the_cart_copy() throws Exception {
+        Cart cart = TestUtils.createCart();
+        Item current = TestUtils.createItem(1L, "Item 1", "Renamed", BigDecimal.TEN);
+        current.setVersion(1L);
+        when(catalog.findById(1L)).thenReturn(Optional.of(current));
+
+        String json = new ObjectMapper().writeValueAsString(CartResponse.of(cart, itemPayloads));
+
+        assertTrue(json.contains("\"description\":\"Renamed\""));
+        assertFalse(json.contains("\"description\":\"Description 1\""));
+    }
+
+    private static CartItemChange change(long itemId, int quantity) {
+        CartItemChange change = new CartItemChange();
+        change.setItemId(itemId);
+        change.setQuantity(quantity);
+        return change;
+    }
 }
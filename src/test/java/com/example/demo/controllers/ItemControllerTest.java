@@ -2,8 +2,14 @@ package com.example.demo.controllers;
 
 
 import com.example.demo.TestUtils;
+import com.example.demo.cache.ItemCache;
 import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.listeners.ItemChangedEvent;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.ItemStreamRepository;
+import com.example.demo.model.responses.ItemPage;
+import com.example.demo.search.ItemSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.assertj.core.util.Lists;
 import org.junit.Before;
 import org.junit.Test;
@@ -12,18 +18,25 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
@@ -37,10 +50,20 @@ public class ItemControllerTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemStreamRepository itemStreamRepository;
+
+    private ItemSearchIndex itemSearchIndex = new ItemSearchIndex();
+
     @Before
     public void setUp() {
         itemController = new ItemController();
         TestUtils.injectObjects(itemController, "itemRepository", itemRepository);
+        TestUtils.injectObjects(itemController, "itemStreamRepository", itemStreamRepository);
+        TestUtils.injectObjects(itemController, "itemCache", new ItemCache(100, 60));
+        TestUtils.injectObjects(itemController, "objectMapper", new ObjectMapper());
+        TestUtils.injectObjects(itemController, "maxPageSize", 2);
+        TestUtils.injectObjects(itemController, "itemSearchIndex", itemSearchIndex);
     }
 
     @Test
@@ -115,5 +138,126 @@ public class ItemControllerTest {
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
         Mockito.verify(itemRepository, times(1)).findByName(Mockito.anyString());
     }
-}
 
+    @Test
+    public void get_item_by_id_served_from_cache() {
+        Item item1 = TestUtils.createItem(1L, "Item 1", "Item 1 Description", BigDecimal.TEN);
+
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+
+        itemController.getItemById(1L);
+        ResponseEntity<Item> response = itemController.getItemById(1L);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
+        assertEquals(item1, response.getBody());
+        Mockito.verify(itemRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void get_items_reloaded_after_item_changed() {
+        ItemCache itemCache = new ItemCache(100, 60);
+        TestUtils.injectObjects(itemController, "itemCache", itemCache);
+        Item item1 = TestUtils.createItem(1L, "Item 1", "Item 1 Description", BigDecimal.TEN);
+
+        when(itemRepository.findAll()).thenReturn(Arrays.asList(item1));
+
+        itemController.getItems();
+        itemController.getItems();
+        itemCache.onItemChanged(new ItemChangedEvent(item1, ItemChangedEvent.Type.UPDATED));
+        itemController.getItems();
+
+        Mockito.verify(itemRepository, times(2)).findAll();
+        assertEquals(1, itemCache.getHitCount());
+    }
+
+    @Test
+    public void get_item_page_with_more_results() {
+        Item item1 = TestUtils.createItem(1L, "Item 1", "Item 1 Description", BigDecimal.TEN);
+        Item item2 = TestUtils.createItem(2L, "Item 2", "Item 2 Description", BigDecimal.valueOf(20));
+        Item item3 = TestUtils.createItem(3L, "Item 3", "Item 3 Description", BigDecimal.valueOf(30));
+
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(item1, item2, item3));
+
+        ResponseEntity<ItemPage> response = itemController.getItemPage(null, 10);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
+        ItemPage page = response.getBody();
+        assertNotNull(page);
+        assertEquals(Arrays.asList(item1, item2), page.getItems());
+        assertEquals(Long.valueOf(2), page.getNextCursor());
+    }
+
+    @Test
+    public void get_last_item_page() {
+        Item item3 = TestUtils.createItem(3L, "Item 3", "Item 3 Description", BigDecimal.valueOf(30));
+
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(item3));
+
+        ResponseEntity<ItemPage> response = itemController.getItemPage(2L, 2);
+        ItemPage page = response.getBody();
+        assertNotNull(page);
+        assertEquals(Arrays.asList(item3), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void get_item_page_with_invalid_size() {
+        ResponseEntity<ItemPage> response = itemController.getItemPage(null, 0);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatusCodeValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void stream_items() throws Exception {
+        Item item1 = TestUtils.createItem(1L, "Item 1", "Item 1 Description", BigDecimal.TEN);
+        Item item2 = TestUtils.createItem(2L, "Item 2", "Item 2 Description", BigDecimal.valueOf(20));
+        doAnswer(invocation -> {
+            Consumer<Item> consumer = invocation.getArgument(0);
+            consumer.accept(item1);
+            consumer.accept(item2);
+            return null;
+        }).when(itemStreamRepository).forEach(any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> response = itemController.streamItems();
+        assertNotNull(response.getBody());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        Item[] items = new ObjectMapper().readValue(out.toByteArray(), Item[].class);
+        assertArrayEquals(new Item[] { item1, item2 }, items);
+    }
+
+    @Test
+    public void search_items_ranks_name_prefix_first() {
+        itemSearchIndex.index(TestUtils.createItem(1L, "Round Widget", "A widget that is round", BigDecimal.TEN));
+        itemSearchIndex.index(TestUtils.createItem(2L, "Square Widget", "A widget that is square", BigDecimal.ONE));
+
+        ResponseEntity<List<Item>> response = itemController.searchItems("squ", 20);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
+        List<Item> items = response.getBody();
+        assertNotNull(items);
+        assertEquals(Long.valueOf(2), items.get(0).getId());
+    }
+
+    @Test
+    public void search_items_tolerates_typos() {
+        itemSearchIndex.index(TestUtils.createItem(1L, "Round Widget", "A widget that is round", BigDecimal.TEN));
+
+        ResponseEntity<List<Item>> response = itemController.searchItems("widgte", 20);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
+        assertEquals(Long.valueOf(1), response.getBody().get(0).getId());
+    }
+
+    @Test
+    public void search_items_after_item_removed() {
+        Item item1 = TestUtils.createItem(1L, "Round Widget", "A widget that is round", BigDecimal.TEN);
+        itemSearchIndex.index(item1);
+        itemSearchIndex.onItemChanged(new ItemChangedEvent(item1, ItemChangedEvent.Type.DELETED));
+
+        ResponseEntity<List<Item>> response = itemController.searchItems("round", 20);
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
+import com.example.demo.cart.CartLocks;
+import com.example.demo.cart.JpaCartStore;
+import com.example.demo.identity.UserIdentityIndex;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.OrderRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderHistoryPage;
+import com.example.demo.model.responses.OrderLineResponse;
+import com.example.demo.model.responses.OrderReceipt;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.order.OrderSubmissionQueue;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,13 +25,17 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -40,11 +54,21 @@ public class OrderControllerTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private OrderSubmissionQueue orderSubmissionQueue;
+
     @Before
     public void setUp() {
         orderController = new OrderController();
-        TestUtils.injectObjects(orderController, "userRepository", userRepository);
+        TestUtils.injectObjects(orderController, "userIdentityIndex", new UserIdentityIndex(userRepository, cartRepository, 100));
         TestUtils.injectObjects(orderController, "orderRepository", orderRepository);
+        TestUtils.injectObjects(orderController, "cartStore", new JpaCartStore(cartRepository));
+        TestUtils.injectObjects(orderController, "cartLocks", new CartLocks(16, 1000));
+        TestUtils.injectObjects(orderController, "maxPageSize", 2);
+        TestUtils.injectObjects(orderController, "orderSubmissionQueue", orderSubmissionQueue);
     }
 
     @Test
@@ -65,17 +89,22 @@ public class OrderControllerTest {
         user.setCart(cart);
         when(userRepository.findByUsername("username")).thenReturn(user);
 
-        ResponseEntity<UserOrder> response = orderController.submit("username");
+        ResponseEntity<OrderResponse> response = orderController.submit("username");
         assertNotNull(response);
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
-        UserOrder userOrder = response.getBody();
+        OrderResponse userOrder = response.getBody();
 
         assertNotNull(userOrder);
-        assertEquals(Arrays.asList(item1, item2), userOrder.getItems());
-        assertEquals(user, userOrder.getUser());
+        assertNotNull(userOrder.getReference());
+        assertEquals(2, userOrder.getLines().size());
+        OrderLineResponse line = userOrder.getLines().get(1);
+        assertEquals(Long.valueOf(2), line.getItemId());
+        assertEquals("Item2", line.getName());
+        assertEquals(BigDecimal.valueOf(20), line.getUnitPrice());
+        assertEquals(1, line.getQuantity());
         //assertEquals(BigDecimal.valueOf(30), userOrder.getTotal());
         Mockito.verify(userRepository, times(1)).findByUsername("username");
-        Mockito.verify(orderRepository, times(1)).save(userOrder);
+        Mockito.verify(orderRepository, times(1)).saveWithLines(Mockito.any(UserOrder.class));
 
     }
 
@@ -83,11 +112,11 @@ public class OrderControllerTest {
     public void submit_with_invalid_username() {
         when(userRepository.findByUsername("username")).thenReturn(null);
 
-        ResponseEntity<UserOrder> response = orderController.submit("username");
+        ResponseEntity<OrderResponse> response = orderController.submit("username");
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
         Mockito.verify(userRepository, times(1)).findByUsername("username");
-        Mockito.verify(orderRepository , never()).save(Mockito.any());
+        Mockito.verify(orderRepository , never()).saveWithLines(Mockito.any());
     }
 
     @Test
@@ -96,37 +125,106 @@ public class OrderControllerTest {
         user.setUsername("username");
         user.setPassword("password");
 
-        Item item1 = TestUtils.createItem(1L, "Item 1", "Item 1 Description", BigDecimal.TEN);
-
-        UserOrder userOrder1 = new UserOrder();
-        userOrder1.setUser(user);
-        userOrder1.setItems(Arrays.asList(item1));
-        userOrder1.setTotal(BigDecimal.TEN);
+        OrderResponse userOrder1 = new OrderResponse(1L, "reference-1", BigDecimal.TEN, Instant.now());
+        userOrder1.getLines().add(new OrderLineResponse(1L, 1L, "Item 1", BigDecimal.TEN, 1));
 
-        UserOrder userOrder2 = new UserOrder();
-        userOrder2.setUser(user);
-        userOrder2.setItems(Arrays.asList(item1));
-        userOrder2.setTotal(BigDecimal.TEN);
+        OrderResponse userOrder2 = new OrderResponse(2L, "reference-2", BigDecimal.TEN, Instant.now());
+        userOrder2.getLines().add(new OrderLineResponse(2L, 1L, "Item 1", BigDecimal.TEN, 1));
 
         when(userRepository.findByUsername("username")).thenReturn(user);
-        when(orderRepository.findByUser(user)).thenReturn(Arrays.asList(userOrder1, userOrder2));
+        when(orderRepository.findResponsesByUser(user)).thenReturn(Arrays.asList(userOrder1, userOrder2));
 
-        ResponseEntity<List<UserOrder>> response = orderController.getOrdersForUser("username");
+        ResponseEntity<List<OrderResponse>> response = orderController.getOrdersForUser("username");
         assertNotNull(response);
-        List<UserOrder> responseBody = response.getBody();
+        List<OrderResponse> responseBody = response.getBody();
         assertEquals(Arrays.asList(userOrder1, userOrder2), responseBody);
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
         Mockito.verify(userRepository, times(1)).findByUsername("username");
-        Mockito.verify(orderRepository  , times(1)).findByUser(user);
+        Mockito.verify(orderRepository  , times(1)).findResponsesByUser(user);
+        Mockito.verify(orderRepository, never()).findByUser(Mockito.any());
     }
 
     @Test
     public void get_history_order_invalid_username() {
         when(userRepository.findByUsername(ArgumentMatchers.any())).thenReturn(null);
 
-        ResponseEntity<List<UserOrder>> responseEntity = orderController.getOrdersForUser("username");
+        ResponseEntity<List<OrderResponse>> responseEntity = orderController.getOrdersForUser("username");
 
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
 
     }
+
+    @Test
+    public void get_order_summaries_first_page() {
+        User user = TestUtils.createUser("username", "password");
+        OrderSummary summary3 = new OrderSummary(3L, BigDecimal.TEN, 1L, Instant.now());
+        OrderSummary summary2 = new OrderSummary(2L, BigDecimal.TEN, 2L, Instant.now());
+        OrderSummary summary1 = new OrderSummary(1L, BigDecimal.ONE, 1L, Instant.now());
+
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        when(orderRepository.findSummariesBefore(user, Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(summary3, summary2, summary1));
+
+        ResponseEntity<OrderHistoryPage> response = orderController.getOrderSummariesForUser("username", null, 10);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
+        OrderHistoryPage page = response.getBody();
+        assertNotNull(page);
+        assertEquals(Arrays.asList(summary3, summary2), page.getOrders());
+        assertEquals(Long.valueOf(2), page.getNextCursor());
+        Mockito.verify(orderRepository, never()).findByUser(Mockito.any());
+    }
+
+    @Test
+    public void get_order_summaries_invalid_username() {
+        when(userRepository.findByUsername("username")).thenReturn(null);
+
+        ResponseEntity<OrderHistoryPage> response = orderController.getOrderSummariesForUser("username", null, 10);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
+    }
+
+    @Test
+    public void get_order_detail_of_other_user() {
+        User user = TestUtils.createUser("username", "password");
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        when(orderRepository.findResponseByIdAndUser(5L, user)).thenReturn(Optional.empty());
+
+        ResponseEntity<OrderResponse> response = orderController.getOrderForUser("username", 5L);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
+    }
+
+    @Test
+    public void submit_async_is_accepted() {
+        User user = TestUtils.createUser("username", "password");
+        Cart cart = TestUtils.createCart();
+        cart.setUser(user);
+        user.setCart(cart);
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        when(orderSubmissionQueue.offer(Mockito.any())).thenReturn(true);
+
+        ResponseEntity<OrderReceipt> response = orderController.submitAsync("username");
+
+        assertEquals(HttpStatus.ACCEPTED.value(), response.getStatusCodeValue());
+        OrderReceipt receipt = response.getBody();
+        assertNotNull(receipt);
+        assertNotNull(receipt.getReference());
+        assertEquals(BigDecimal.valueOf(30), receipt.getTotal());
+        Mockito.verify(orderRepository, never()).saveWithLines(Mockito.any());
+    }
+
+    @Test
+    public void submit_async_when_queue_full() {
+        User user = TestUtils.createUser("username", "password");
+        Cart cart = TestUtils.createCart();
+        cart.setUser(user);
+        user.setCart(cart);
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        when(orderSubmissionQueue.offer(Mockito.any())).thenReturn(false);
+
+        ResponseEntity<OrderReceipt> response = orderController.submitAsync("username");
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatusCodeValue());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
 }
@@ -0,0 +1,135 @@
+package com.example.demo.controllers;
+
+import com.auth0.jwt.JWT;
+import com.example.demo.TestUtils;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.querystats.QueryStats;
+import com.example.demo.querystats.QueryStatsFilter;
+import com.example.demo.querystats.QueryStatsRecorder;
+import com.example.demo.security.SecurityConstants;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets per endpoint, so a lazy load sneaking back into a hot
+ * path fails the build instead of showing up in production.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"ecommerce.ratelimit.enabled=false", "ecommerce.querystats.headers=true",
+        "ecommerce.querystats.repeat-threshold=3"})
+@AutoConfigureMockMvc
+public class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private QueryStatsRecorder recorder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String username;
+    private String token;
+
+    @Before
+    public void setUp() throws Exception {
+        username = "budget-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        user.setCart(new Cart());
+        userRepository.save(user);
+        token = SecurityConstants.TOKEN_PREFIX + JWT.create()
+                .withSubject(username)
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+                .sign(HMAC512(SecurityConstants.SECRET.getBytes()));
+        for (int i = 0; i < 3; i++) {
+            addToCart(i % 2 + 1);
+            mvc.perform(post("/api/order/submit/" + username).header(SecurityConstants.HEADER_STRING, token))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void item_lookup_stays_within_budget() throws Exception {
+        TestUtils.assertMaxQueries(1, () -> mvc.perform(get("/api/item/1")
+                .header(SecurityConstants.HEADER_STRING, token)).andExpect(status().isOk()));
+    }
+
+    @Test
+    public void cart_update_stays_within_budget() throws Exception {
+        TestUtils.assertMaxQueries(6, () -> addToCart(2));
+    }
+
+    @Test
+    public void order_history_does_not_grow_with_orders() throws Exception {
+        TestUtils.assertMaxQueries(2, () -> mvc.perform(get("/api/order/history/" + username)
+                .header(SecurityConstants.HEADER_STRING, token)).andExpect(status().isOk()));
+        TestUtils.assertMaxQueries(1, () -> mvc.perform(get("/api/order/history/" + username + "/summary")
+                .header(SecurityConstants.HEADER_STRING, token)).andExpect(status().isOk()));
+    }
+
+    @Test
+    public void counts_are_sent_as_headers() throws Exception {
+        MvcResult result = mvc.perform(get("/api/order/history/" + username)
+                .header(SecurityConstants.HEADER_STRING, token)).andExpect(status().isOk()).andReturn();
+
+        assertEquals("2", result.getResponse().getHeader(QueryStatsFilter.QUERY_COUNT_HEADER));
+        assertNotNull(result.getResponse().getHeader(QueryStatsFilter.QUERY_TIME_HEADER));
+        assertTrue(Long.parseLong(result.getResponse().getHeader(QueryStatsFilter.QUERY_ROWS_HEADER)) >= 6);
+    }
+
+    @Test
+    public void lazy_loading_order_lines_is_flagged() throws Exception {
+        long repeatedBefore = recorder.getRepeatedStatementCount();
+        QueryStats stats = TestUtils.countQueries(() -> transactionTemplate.execute(status -> {
+            User user = userRepository.findByUsername(username);
+            for (UserOrder order : orderRepository.findByUser(user)) {
+                order.getLines().size();
+            }
+            return null;
+        }));
+
+        assertEquals(1, stats.getRepeatedStatements(3).size());
+        recorder.record("lazy order lines", stats);
+        assertEquals(repeatedBefore + 1, recorder.getRepeatedStatementCount());
+    }
+
+    private Object addToCart(long itemId) throws Exception {
+        return mvc.perform(post("/api/cart/addToCart").header(SecurityConstants.HEADER_STRING, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"itemId\":" + itemId + ",\"quantity\":1}"))
+                .andExpect(status().isOk());
+    }
+}
@@ -1,15 +1,18 @@
 package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
+import com.example.demo.identity.UserIdentityIndex;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.UserResponse;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
@@ -46,6 +49,7 @@ public class UserControllerTest {
         TestUtils.injectObjects(userController, "userRepository", userRepository);
         TestUtils.injectObjects(userController, "cartRepository", cartRepository);
         TestUtils.injectObjects(userController, "bCryptPasswordEncoder", bCryptPasswordEncoder);
+        TestUtils.injectObjects(userController, "userIdentityIndex", new UserIdentityIndex(userRepository, cartRepository, 100));
     }
 
     @Test
@@ -55,21 +59,20 @@ public class UserControllerTest {
         user.setPassword("password");
         when(userRepository.findById(0L)).thenReturn(Optional.of(user));
 
-        final ResponseEntity<User> response = userController.findById(0L);
+        final ResponseEntity<UserResponse> response = userController.findById(0L);
         assertNotNull(response);
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
-        User user1 = response.getBody();
+        UserResponse user1 = response.getBody();
         assertNotNull(user1);
         assertEquals(0, user1.getId());
         assertEquals("username", user1.getUsername());
-        assertEquals("password", user1.getPassword());
     }
 
     @Test
     public void find_by_id_notfound() {
         when(userRepository.findById(0L)).thenReturn(Optional.empty());
 
-        final ResponseEntity<User> response = userController.findById(0L);
+        final ResponseEntity<UserResponse> response = userController.findById(0L);
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
     }
@@ -81,21 +84,20 @@ public class UserControllerTest {
         user.setPassword("password");
         when(userRepository.findByUsername("user")).thenReturn(user);
 
-        final ResponseEntity<User> response = userController.findByUserName("user");
+        final ResponseEntity<UserResponse> response = userController.findByUserName("user");
         assertNotNull(response);
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
-        User user1 = response.getBody();
+        UserResponse user1 = response.getBody();
         assertNotNull(user1);
         assertEquals(0, user1.getId());
         assertEquals("username", user1.getUsername());
-        assertEquals("password", user1.getPassword());
     }
 
     @Test
     public void find_by_username_not_found() {
         when(userRepository.findByUsername("testuser")).thenReturn(null);
 
-        final ResponseEntity<User> response = userController.findByUserName("testuser");
+        final ResponseEntity<UserResponse> response = userController.findByUserName("testuser");
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCodeValue());
     }
@@ -108,15 +110,15 @@ public class UserControllerTest {
         request.setPassword("password");
         request.setConfirmPassword("password");
 
-        final ResponseEntity<User> response = userController.createUser(request);
+        final ResponseEntity<UserResponse> response = userController.createUser(request);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
-        User testuser = response.getBody();
+        UserResponse testuser = response.getBody();
         assertNotNull(testuser);
         assertEquals(0, testuser.getId());
         assertEquals("username", testuser.getUsername());
-        assertEquals("hashedpassword", testuser.getPassword());
+        Mockito.verify(userRepository).save(Mockito.argThat(saved -> "hashedpassword".equals(saved.getPassword())));
     }
 
     @Test
@@ -127,7 +129,7 @@ public class UserControllerTest {
         request.setPassword("pass");
         request.setConfirmPassword("pass");
 
-        final ResponseEntity<User> response = userController.createUser(request);
+        final ResponseEntity<UserResponse> response = userController.createUser(request);
 
         assertNotNull(response);
         assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatusCodeValue());
@@ -142,7 +144,7 @@ public class UserControllerTest {
         request.setPassword("password");
         request.setConfirmPassword("passWord");
 
-        final ResponseEntity<User> response = userController.createUser(request);
+        final ResponseEntity<UserResponse> response = userController.createUser(request);
 
         assertNotNull(response);
         assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatusCodeValue());
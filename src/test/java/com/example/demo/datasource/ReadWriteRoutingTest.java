@@ -0,0 +1,91 @@
+package com.example.demo.datasource;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "ecommerce.datasource.replica.sync-interval-ms=3600000")
+@ActiveProfiles("replica")
+public class ReadWriteRoutingTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ReplicaSync replicaSync;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void read_only_transactions_use_the_replica() {
+        assertEquals("BOOTAPP_REPLICA", databaseName(true));
+        assertEquals("BOOTAPP", databaseName(false));
+        assertEquals("BOOTAPP", jdbcTemplate.queryForObject("call database()", String.class));
+    }
+
+    @Test
+    public void replica_catches_up_after_sync() {
+        String name = "Replicated " + UUID.randomUUID();
+        Item item = new Item();
+        item.setName(name);
+        item.setPrice(BigDecimal.TEN);
+        item.setDescription("Written to the primary");
+        itemRepository.save(item);
+
+        assertTrue(itemRepository.findByName(name).isEmpty());
+
+        replicaSync.sync();
+
+        assertEquals(1, itemRepository.findByName(name).size());
+    }
+
+    @Test
+    public void rows_read_from_a_lagging_replica_are_not_cached() {
+        Item item = new Item();
+        item.setName("Lagging " + UUID.randomUUID());
+        item.setPrice(BigDecimal.TEN);
+        item.setDescription("Before the update");
+        item = itemRepository.save(item);
+        replicaSync.sync();
+
+        item.setDescription("After the update");
+        itemRepository.save(item);
+        entityManagerFactory.getCache().evict(Item.class, item.getId());
+
+        assertEquals("Before the update", itemRepository.findById(item.getId()).get().getDescription());
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+
+        replicaSync.sync();
+
+        assertEquals("After the update", itemRepository.findById(item.getId()).get().getDescription());
+    }
+
+    private String databaseName(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("call database()", String.class));
+    }
+}
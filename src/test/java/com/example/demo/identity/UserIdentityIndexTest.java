@@ -0,0 +1,76 @@
+package com.example.demo.identity;
+
+import com.example.demo.TestUtils;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserIdentityIndexTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CartRepository cartRepository = mock(CartRepository.class);
+
+    @Test
+    public void second_lookup_does_not_query() {
+        UserIdentityIndex index = new UserIdentityIndex(userRepository, cartRepository, 10);
+        User user = user(7L, "username", 70L);
+        Cart reference = new Cart();
+        when(userRepository.findByUsername("username")).thenReturn(user);
+        when(cartRepository.getOne(70L)).thenReturn(reference);
+
+        assertSame(user, index.findUser("username"));
+        User cached = index.findUser("username");
+
+        assertEquals(7L, cached.getId());
+        assertEquals("username", cached.getUsername());
+        assertEquals("hash", cached.getPassword());
+        assertSame(reference, cached.getCart());
+        assertEquals("hash", index.find("username").get().getPasswordHash());
+        verify(userRepository, times(1)).findByUsername("username");
+        assertEquals(2, index.getHitCount());
+        assertEquals(1, index.getMissCount());
+    }
+
+    @Test
+    public void unknown_users_are_not_indexed() {
+        UserIdentityIndex index = new UserIdentityIndex(userRepository, cartRepository, 10);
+
+        assertNull(index.findUser("nobody"));
+        assertFalse(index.find("nobody").isPresent());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void created_users_are_indexed_and_size_is_bounded() {
+        UserIdentityIndex index = new UserIdentityIndex(userRepository, cartRepository, 2);
+
+        for (long i = 1; i <= 5; i++) {
+            index.register(user(i, "user" + i, i));
+        }
+
+        assertEquals(2, index.size());
+        assertEquals(3, index.getEvictionCount());
+        assertEquals(5L, index.find("user5").get().getUserId());
+        verify(userRepository, times(0)).findByUsername("user5");
+    }
+
+    private static User user(long id, String username, long cartId) {
+        User user = TestUtils.createUser(username, "hash");
+        user.setId(id);
+        Cart cart = new Cart();
+        cart.setId(cartId);
+        user.setCart(cart);
+        return user;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.logging;
+
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RequestLoggingFilterTest {
+
+    private final RequestLoggingFilter filter = new RequestLoggingFilter(true);
+
+    @Test
+    public void tags_the_request_and_clears_the_tags_afterwards() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/item"), response, (req, res) -> {
+            seen.set(MDC.get(RequestLoggingFilter.REQUEST_ID));
+            MDC.put(RequestLoggingFilter.USER, "someone");
+        });
+
+        assertTrue(seen.get(), seen.get().matches("[0-9a-f]{16}"));
+        assertEquals(seen.get(), response.getHeader(RequestLoggingFilter.REQUEST_ID_HEADER));
+        assertNull(MDC.get(RequestLoggingFilter.REQUEST_ID));
+        assertNull(MDC.get(RequestLoggingFilter.USER));
+    }
+
+    @Test
+    public void reuses_a_supplied_request_id() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/item");
+        request.addHeader(RequestLoggingFilter.REQUEST_ID_HEADER, "upstream-42.a_b");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> { });
+
+        assertEquals("upstream-42.a_b", response.getHeader(RequestLoggingFilter.REQUEST_ID_HEADER));
+    }
+
+    @Test
+    public void replaces_a_request_id_that_could_forge_log_lines() {
+        String requestId = RequestLoggingFilter.requestId("abc\n{\"level\":\"ERROR\"}");
+
+        assertTrue(requestId, requestId.matches("[0-9a-f]{16}"));
+    }
+}
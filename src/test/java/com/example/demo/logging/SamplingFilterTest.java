@@ -0,0 +1,63 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SamplingFilterTest {
+
+    private final SamplingFilter filter = new SamplingFilter();
+
+    @Test
+    public void keeps_everything_by_default() {
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event(Level.INFO, "0123456789abcdef")));
+    }
+
+    @Test
+    public void never_samples_warnings_or_events_outside_a_request() {
+        filter.setInfoRate(0.0);
+        long sampledOut = LogEventCounters.getSampledOutCount();
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event(Level.WARN, "0123456789abcdef")));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event(Level.ERROR, "0123456789abcdef")));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event(Level.INFO, null)));
+        assertEquals(FilterReply.DENY, filter.decide(event(Level.INFO, "0123456789abcdef")));
+        assertEquals(sampledOut + 1, LogEventCounters.getSampledOutCount());
+    }
+
+    @Test
+    public void keeps_or_drops_a_request_whole() {
+        filter.setInfoRate(0.25);
+        int kept = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String requestId = RequestLoggingFilter.requestId(null);
+            FilterReply first = filter.decide(event(Level.INFO, requestId));
+            assertEquals(first, filter.decide(event(Level.INFO, requestId)));
+            if (first == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertTrue("kept " + kept, kept > 2_000 && kept < 3_000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejects_a_rate_above_one() {
+        filter.setInfoRate(1.5);
+    }
+
+    private static LoggingEvent event(Level level, String requestId) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        Map<String, String> mdc = requestId == null ? Collections.emptyMap()
+                : Collections.singletonMap(RequestLoggingFilter.REQUEST_ID, requestId);
+        event.setMDCPropertyMap(mdc);
+        return event;
+    }
+}
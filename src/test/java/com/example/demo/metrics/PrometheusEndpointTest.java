@@ -0,0 +1,67 @@
+package com.example.demo.metrics;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.SecurityConstants;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.web.server.LocalManagementPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"ecommerce.ratelimit.enabled=false", "ecommerce.admission.enabled=false"})
+public class PrometheusEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    public void scrape_exposes_request_repository_pool_and_cache_meters() {
+        String username = "metrics-" + UUID.randomUUID();
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setConfirmPassword("password123");
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity("/api/user/create", request, String.class).getStatusCode());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + JWT.create()
+                .withSubject(username)
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC512(SecurityConstants.SECRET.getBytes())));
+        ResponseEntity<String> item = restTemplate.exchange("/api/item/1", HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+        assertEquals(HttpStatus.OK, item.getStatusCode());
+
+        String scrape = restTemplate.getForObject("http://localhost:" + managementPort + "/actuator/prometheus",
+                String.class);
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(scrape.contains("uri=\"/api/item/{id}\""));
+        assertTrue(scrape.contains("repository_invocations_seconds_bucket{"));
+        assertTrue(scrape.contains("repository=\"UserRepository\""));
+        assertTrue(scrape.contains("hikaricp_connections_active{"));
+        assertTrue(scrape.contains("tomcat_threads_busy_threads{"));
+        assertTrue(scrape.contains("cache_gets_total{application=\"ecommerce\",cache=\"item\",result=\"hit\",}")
+                || scrape.contains("cache_gets_total{application=\"ecommerce\",cache=\"item\",result=\"miss\",}"));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.model.persistence.repositories;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Every test writes inside a transaction that is rolled back once the
+ * statistics are read, so the shared database is left as it was found.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class BatchInsertTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void bulk_item_import_is_batched() {
+        List<Item> items = items("Bulk Widget", 120);
+        statistics.clear();
+
+        transactionTemplate.execute(status -> {
+            itemRepository.saveAll(items);
+            itemRepository.flush();
+
+            assertEquals(120, statistics.getEntityInsertCount());
+            // three sequence calls for 120 ids plus one insert statement reused by three batches
+            assertTrue("prepared " + statistics.getPrepareStatementCount() + " statements",
+                    statistics.getPrepareStatementCount() <= 6);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject(
+                "select count(*) from item where name like 'Bulk Widget%'", Integer.class));
+    }
+
+    @Test
+    public void order_batch_is_batched() {
+        transactionTemplate.execute(status -> {
+            User user = user("batchorders");
+            List<Item> items = itemRepository.saveAll(items("Order Widget", 3));
+            Cart cart = user.getCart();
+            for (Item item : items) {
+                cart.addItem(item, 2);
+            }
+            List<UserOrder> orders = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                orders.add(UserOrder.createFromCart(cart));
+            }
+            itemRepository.flush();
+            statistics.clear();
+
+            orderRepository.saveAllWithLines(orders);
+
+            assertEquals(20, statistics.getEntityInsertCount());
+            // one sequence call for 20 ids plus one batched order insert; the lines go in one JDBC batch
+            assertTrue("prepared " + statistics.getPrepareStatementCount() + " statements",
+                    statistics.getPrepareStatementCount() <= 2);
+            assertEquals(Integer.valueOf(60), jdbcTemplate.queryForObject(
+                    "select count(*) from order_line l join user_order o on o.id = l.order_id "
+                            + "where o.user_id = ?", Integer.class, user.getId()));
+            status.setRollbackOnly();
+            return null;
+        });
+    }
+
+    @Test
+    public void cart_save_is_batched() {
+        transactionTemplate.execute(status -> {
+            User user = user("batchcart");
+            List<Item> items = itemRepository.saveAll(items("Cart Widget", 30));
+            itemRepository.flush();
+            statistics.clear();
+
+            Cart cart = user.getCart();
+            for (Item item : items) {
+                cart.addItem(item, 1);
+            }
+            cartRepository.save(cart);
+            cartRepository.flush();
+
+            assertEquals(30, statistics.getEntityInsertCount());
+            // one sequence call for 30 line ids, one batched line insert and the versioned cart update
+            assertTrue("prepared " + statistics.getPrepareStatementCount() + " statements",
+                    statistics.getPrepareStatementCount() <= 3);
+            status.setRollbackOnly();
+            return null;
+        });
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        Cart cart = new Cart();
+        cart.setUser(user);
+        user.setCart(cart);
+        return userRepository.save(user);
+    }
+
+    private static List<Item> items(String name, int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Item item = new Item();
+            item.setName(name + " " + i);
+            item.setPrice(BigDecimal.ONE);
+            item.setDescription("Imported in bulk");
+            items.add(item);
+        }
+        return items;
+    }
+}
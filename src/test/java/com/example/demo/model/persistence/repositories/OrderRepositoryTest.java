@@ -0,0 +1,113 @@
+package com.example.demo.model.persistence.repositories;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.OrderSummary;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void order_lines_keep_the_price_paid() {
+        User user = new User();
+        user.setUsername("orderlines");
+        user.setPassword("unused");
+        user.setCart(new Cart());
+        userRepository.save(user);
+
+        Item item = new Item();
+        item.setName("Snapshot Widget");
+        item.setPrice(new BigDecimal("4.50"));
+        item.setDescription("A widget whose price changes");
+        itemRepository.save(item);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.addItem(item, 3);
+        UserOrder order = orderRepository.saveWithLines(UserOrder.createFromCart(cart));
+
+        assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject(
+                "select count(*) from order_line where order_id = ?", Integer.class, order.getId()));
+        jdbcTemplate.update("update item set price = ? where id = ?", new BigDecimal("9.99"), item.getId());
+
+        transactionTemplate.execute(status -> {
+            User reloaded = userRepository.findByUsername("orderlines");
+            OrderLine line = orderRepository.findByIdAndUser(order.getId(), reloaded).get().getLines().get(0);
+            assertEquals(0, new BigDecimal("4.50").compareTo(line.getUnitPrice()));
+            assertEquals("Snapshot Widget", line.getName());
+            assertEquals(3, line.getQuantity());
+
+            List<OrderSummary> summaries = orderRepository.findSummariesBefore(reloaded, Long.MAX_VALUE,
+                    PageRequest.of(0, 10));
+            assertEquals(1, summaries.size());
+            assertEquals(3, summaries.get(0).getItemCount());
+            return null;
+        });
+    }
+
+    @Test
+    public void order_responses_group_lines_by_order() {
+        User user = new User();
+        user.setUsername("orderresponses");
+        user.setPassword("unused");
+        user.setCart(new Cart());
+        userRepository.save(user);
+
+        Item first = itemRepository.findById(1L).get();
+        Item second = itemRepository.findById(2L).get();
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.addItem(first, 1);
+        UserOrder older = orderRepository.saveWithLines(UserOrder.createFromCart(cart));
+        cart.addItem(second, 2);
+        UserOrder newer = orderRepository.saveWithLines(UserOrder.createFromCart(cart));
+
+        List<OrderResponse> orders = orderRepository.findResponsesByUser(user);
+        assertEquals(2, orders.size());
+        assertEquals(older.getId(), orders.get(0).getId());
+        assertEquals(1, orders.get(0).getLines().size());
+        assertEquals(2, orders.get(1).getLines().size());
+        assertEquals("Square Widget", orders.get(1).getLines().get(1).getName());
+        assertEquals(2, orders.get(1).getLines().get(1).getQuantity());
+
+        OrderResponse byReference = orderRepository.findResponseByReferenceAndUser(newer.getReference(), user).get();
+        assertEquals(newer.getId(), byReference.getId());
+        assertEquals(2, byReference.getLines().size());
+        assertFalse(orderRepository.findResponseByIdAndUser(Long.MAX_VALUE, user).isPresent());
+    }
+}
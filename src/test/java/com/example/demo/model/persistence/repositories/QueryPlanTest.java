@@ -0,0 +1,150 @@
+package com.example.demo.model.persistence.repositories;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Runs every repository query method, captures the SQL Hibernate sends and
+ * checks with {@code EXPLAIN} that each select is answered from an index.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.demo.model.persistence.repositories.QueryPlanTest$CapturingInspector")
+public class QueryPlanTest {
+
+    private static final List<String> captured = new ArrayList<>();
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private UserOrder order;
+
+    @Before
+    public void setUp() {
+        user = new User();
+        user.setUsername("plan-" + UUID.randomUUID());
+        user.setPassword("unused");
+        user.setCart(new Cart());
+        userRepository.save(user);
+
+        Item item = itemRepository.findById(1L).get();
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.addItem(item, 2);
+        order = orderRepository.saveWithLines(UserOrder.createFromCart(cart));
+    }
+
+    @Test
+    public void item_queries_use_indexes() {
+        assertIndexed("findById", () -> itemRepository.findById(1L));
+        assertIndexed("findByName", () -> itemRepository.findByName("Round Widget"));
+        assertIndexed("findByIdGreaterThanOrderByIdAsc",
+                () -> itemRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    public void user_and_cart_queries_use_indexes() {
+        assertIndexed("findByUsername", () -> userRepository.findByUsername(user.getUsername()));
+        assertIndexed("findById", () -> userRepository.findById(user.getId()));
+        assertIndexed("findByUser", () -> cartRepository.findByUser(user));
+        assertIndexed("cart lines", () -> transactionTemplate.execute(
+                status -> cartRepository.findById(user.getCart().getId()).get().getLines().size()));
+    }
+
+    @Test
+    public void order_queries_use_indexes() {
+        assertIndexed("findByUser", () -> orderRepository.findByUser(user));
+        assertIndexed("findByIdAndUser", () -> orderRepository.findByIdAndUser(order.getId(), user));
+        assertIndexed("findByReferenceAndUser", () -> orderRepository.findByReferenceAndUser(order.getReference(), user));
+        assertIndexed("findSummariesBefore",
+                () -> orderRepository.findSummariesBefore(user, Long.MAX_VALUE, PageRequest.of(0, 10)));
+        assertIndexed("order lines", () -> transactionTemplate.execute(
+                status -> orderRepository.findById(order.getId()).get().getLines().size()));
+    }
+
+    @Test
+    public void order_response_queries_use_indexes() {
+        // a second order so the line projection reads order_line for several order ids
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.addItem(itemRepository.findById(2L).get(), 1);
+        orderRepository.saveWithLines(UserOrder.createFromCart(cart));
+
+        assertIndexed("findResponsesByUser", () -> orderRepository.findResponsesByUser(user));
+        assertIndexed("findResponseByIdAndUser", () -> orderRepository.findResponseByIdAndUser(order.getId(), user));
+        assertIndexed("findResponseByReferenceAndUser",
+                () -> orderRepository.findResponseByReferenceAndUser(order.getReference(), user));
+        assertIndexed("order line projection", () -> assertEquals(2, orderRepository.findResponsesByUser(user).stream()
+                .filter(response -> response.getLines().size() == 1).count()));
+    }
+
+    private void assertIndexed(String method, Runnable query) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        List<String> statements;
+        synchronized (captured) {
+            captured.clear();
+            query.run();
+            statements = new ArrayList<>(captured);
+        }
+        assertFalse(method + " ran no SQL", statements.isEmpty());
+        for (String sql : statements) {
+            if (!sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                continue;
+            }
+            String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+            assertFalse(method + " scans a table:\n" + plan, plan.contains("tableScan"));
+        }
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (captured) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+    }
+}
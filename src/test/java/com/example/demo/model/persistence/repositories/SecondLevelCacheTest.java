@@ -0,0 +1,76 @@
+package com.example.demo.model.persistence.repositories;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void warm_item_lookups_do_not_query() {
+        Item item = new Item();
+        item.setName("Cached Widget");
+        item.setPrice(BigDecimal.ONE);
+        item.setDescription("Served from the second-level cache");
+        itemRepository.save(item);
+        itemRepository.findById(item.getId());
+        itemRepository.findByName("Cached Widget");
+
+        statistics.clear();
+        assertEquals("Cached Widget", itemRepository.findById(item.getId()).get().getName());
+        assertEquals(1, itemRepository.findByName("Cached Widget").size());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void warm_username_lookup_does_not_query() {
+        User user = new User();
+        user.setUsername("cachedlookup");
+        user.setPassword("unused");
+        user.setCart(new Cart());
+        userRepository.save(user);
+        userRepository.findByUsername("cachedlookup");
+
+        statistics.clear();
+        User cached = userRepository.findByUsername("cachedlookup");
+
+        assertEquals(user.getId(), cached.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() > 0);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.order;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrderSubmissionQueueTest {
+
+    private OrderRepository orderRepository;
+    private TransactionTemplate transactionTemplate;
+    private OrderSubmissionQueue queue;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any(TransactionCallback.class)))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArguments()[0])
+                        .doInTransaction(null));
+        when(orderRepository.saveAllWithLines(anyListOf(UserOrder.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        queue.shutdown();
+    }
+
+    @Test
+    public void an_order_that_fails_to_write_is_retried_until_it_is_written() throws InterruptedException {
+        when(orderRepository.saveWithLines(any(UserOrder.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+        start(10, 20, 3);
+
+        assertTrue(queue.offer(order("retried")));
+
+        awaitCount(queue::getWrittenCount, 1);
+        assertEquals(1, queue.getFailedCount());
+        assertEquals(0, queue.getParkedCount());
+        assertEquals(0, queue.getDeadLetterCount());
+        verify(orderRepository, times(2)).saveWithLines(any(UserOrder.class));
+    }
+
+    @Test
+    public void an_order_that_keeps_failing_is_dead_lettered_after_the_last_attempt() throws InterruptedException {
+        when(orderRepository.saveWithLines(any(UserOrder.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        start(10, 20, 3);
+
+        assertTrue(queue.offer(order("exhausted")));
+
+        awaitCount(queue::getDeadLetterCount, 1);
+        assertEquals(0, queue.getParkedCount());
+        assertEquals(0, queue.getWrittenCount());
+        verify(orderRepository, times(3)).saveWithLines(any(UserOrder.class));
+    }
+
+    @Test
+    public void a_constraint_violation_is_dead_lettered_without_retrying() throws InterruptedException {
+        when(orderRepository.saveWithLines(any(UserOrder.class)))
+                .thenThrow(new DataIntegrityViolationException("user deleted"));
+        start(10, 20, 3);
+
+        assertTrue(queue.offer(order("poison")));
+
+        awaitCount(queue::getDeadLetterCount, 1);
+        assertEquals(0, queue.getParkedCount());
+        verify(orderRepository, times(1)).saveWithLines(any(UserOrder.class));
+    }
+
+    @Test
+    public void parked_orders_count_against_the_capacity() throws InterruptedException {
+        when(orderRepository.saveWithLines(any(UserOrder.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        start(2, 60_000, 3);
+
+        assertTrue(queue.offer(order("parked1")));
+        assertTrue(queue.offer(order("parked2")));
+        awaitCount(queue::getParkedCount, 2);
+
+        assertFalse(queue.offer(order("refused")));
+        assertEquals(1, queue.getRejectedCount());
+    }
+
+    private void start(int capacity, long retryInitialMillis, int maxAttempts) {
+        queue = new OrderSubmissionQueue(orderRepository, transactionTemplate, capacity, 10, 50, retryInitialMillis,
+                5 * retryInitialMillis, maxAttempts);
+        queue.start();
+    }
+
+    private static void awaitCount(LongSupplier count, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, count.getAsLong());
+    }
+
+    private static UserOrder order(String username) {
+        User user = new User();
+        user.setUsername(username);
+        UserOrder order = new UserOrder();
+        order.setUser(user);
+        order.setReference(username + "-order");
+        return order;
+    }
+}
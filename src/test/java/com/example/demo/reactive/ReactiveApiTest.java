@@ -0,0 +1,187 @@
+package com.example.demo.reactive;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.security.SecurityConstants;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"ecommerce.reactive.port=0", "ecommerce.ratelimit.enabled=false",
+                "ecommerce.reactive.jdbc-threads=" + ReactiveApiTest.JDBC_THREADS,
+                "ecommerce.reactive.jdbc-queue-capacity=" + ReactiveApiTest.JDBC_QUEUE_CAPACITY})
+@ActiveProfiles("reactive")
+public class ReactiveApiTest {
+
+    static final int JDBC_THREADS = 4;
+    static final int JDBC_QUEUE_CAPACITY = 4;
+
+    @Autowired
+    private ReactiveServer reactiveServer;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("jdbcScheduler")
+    private Scheduler jdbcScheduler;
+
+    private WebTestClient client;
+    private String username;
+    private String bearer;
+
+    @Before
+    public void setUp() {
+        client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveServer.getPort())
+                .responseTimeout(Duration.ofSeconds(10))
+                .build();
+        username = "reactive-" + UUID.randomUUID();
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setConfirmPassword("password123");
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity("/api/user/create", request, String.class).getStatusCode());
+        bearer = SecurityConstants.TOKEN_PREFIX + JWT.create()
+                .withSubject(username)
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC512(SecurityConstants.SECRET.getBytes()));
+    }
+
+    @Test
+    public void requests_without_a_token_are_rejected() {
+        client.get().uri("/api/item/1").exchange().expectStatus().isUnauthorized();
+        client.get().uri("/api/item/1").header(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + "forged")
+                .exchange().expectStatus().isUnauthorized();
+    }
+
+    @Test
+    public void serves_items() {
+        Item item = client.get().uri("/api/item/1").header(SecurityConstants.HEADER_STRING, bearer)
+                .exchange().expectStatus().isOk()
+                .expectBody(Item.class).returnResult().getResponseBody();
+        assertEquals("Round Widget", item.getName());
+
+        client.get().uri("/api/item/name/{name}", "No Such Widget").header(SecurityConstants.HEADER_STRING, bearer)
+                .exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void submits_the_cart_and_lists_history() {
+        ModifyCartRequest add = new ModifyCartRequest();
+        add.setUsername(username);
+        add.setItemId(1L);
+        add.setQuantity(2);
+        client.post().uri("/api/cart/addToCart").header(SecurityConstants.HEADER_STRING, bearer)
+                .syncBody(add).exchange().expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.lines.length()").isEqualTo(1)
+                .jsonPath("$.lines[0].quantity").isEqualTo(2);
+
+        client.post().uri("/api/order/submit/{username}", username)
+                .header(SecurityConstants.HEADER_STRING, bearer)
+                .exchange().expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(5.98)
+                .jsonPath("$.lines.length()").isEqualTo(1);
+
+        client.get().uri("/api/order/history/{username}/summary", username)
+                .header(SecurityConstants.HEADER_STRING, bearer)
+                .exchange().expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.orders.length()").isEqualTo(1)
+                .jsonPath("$.orders[0].itemCount").isEqualTo(2)
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    public void unknown_users_and_items_are_not_found() {
+        client.post().uri("/api/order/submit/{username}", "no-such-user").header(SecurityConstants.HEADER_STRING, bearer)
+                .exchange().expectStatus().isNotFound();
+
+        ModifyCartRequest add = new ModifyCartRequest();
+        add.setUsername(username);
+        add.setItemId(Long.MAX_VALUE);
+        add.setQuantity(1);
+        client.post().uri("/api/cart/addToCart").header(SecurityConstants.HEADER_STRING, bearer)
+                .syncBody(add).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void concurrent_adds_to_one_cart_all_succeed() {
+        ModifyCartRequest add = new ModifyCartRequest();
+        add.setUsername(username);
+        add.setItemId(1L);
+        add.setQuantity(1);
+        List<CompletableFuture<HttpStatus>> adds = new ArrayList<>();
+        for (int i = 0; i < JDBC_THREADS; i++) {
+            adds.add(CompletableFuture.supplyAsync(() -> client.post().uri("/api/cart/addToCart")
+                    .header(SecurityConstants.HEADER_STRING, bearer).syncBody(add).exchange()
+                    .returnResult(String.class).getStatus()));
+        }
+        for (CompletableFuture<HttpStatus> status : adds) {
+            assertEquals(HttpStatus.OK, status.join());
+        }
+
+        client.post().uri("/api/cart/addToCart").header(SecurityConstants.HEADER_STRING, bearer)
+                .syncBody(add).exchange().expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.lines[0].quantity").isEqualTo(JDBC_THREADS + 1);
+    }
+
+    @Test
+    public void requests_are_shed_when_the_jdbc_queue_is_full() throws InterruptedException {
+        Semaphore busy = new Semaphore(0);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            busy.release();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            // one at a time, so that an idle worker has taken each one off the queue
+            for (int i = 0; i < JDBC_THREADS; i++) {
+                jdbcScheduler.schedule(blocker);
+                busy.acquire();
+            }
+            for (int i = 0; i < JDBC_QUEUE_CAPACITY; i++) {
+                jdbcScheduler.schedule(blocker);
+            }
+
+            client.get().uri("/api/order/history/{username}", username).header(SecurityConstants.HEADER_STRING, bearer)
+                    .exchange().expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                    .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.search;
+
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CatalogSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JdbcTemplate jdbcTemplate;
+    private CatalogSnapshot snapshot;
+
+    @Before
+    public void setUp() throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table item (id bigint not null, description varchar(255) not null,"
+                + " name varchar(255) not null, price decimal(19,2) not null, primary key (id))");
+        jdbcTemplate.update("insert into item values (1, 'A widget that is round', 'Round Widget', 2.99),"
+                + " (2, 'A widget that is square', 'Square Widget', 10)");
+        snapshot = new CatalogSnapshot(dataSource, new ObjectMapper(), true,
+                folder.newFile("catalog-snapshot.json").toString(), 60);
+    }
+
+    @After
+    public void tearDown() {
+        jdbcTemplate.execute("drop table item");
+    }
+
+    @Test
+    public void snapshot_matching_the_table_is_loaded() {
+        snapshot.write(Arrays.asList(item(1, "Round Widget", "A widget that is round", new BigDecimal("2.99")),
+                item(2, "Square Widget", "A widget that is square", BigDecimal.TEN)));
+
+        List<Item> items = snapshot.load().get();
+
+        assertEquals(2, items.size());
+    }
+
+    @Test
+    public void snapshot_is_rejected_when_a_row_changes_in_place() {
+        snapshot.write(Arrays.asList(item(1, "Round Widget", "A widget that is round", new BigDecimal("2.99")),
+                item(2, "Square Widget", "A widget that is square", BigDecimal.TEN)));
+        assertTrue(snapshot.load().isPresent());
+
+        jdbcTemplate.update("update item set description = 'A widget that is oval' where id = 1");
+
+        assertFalse(snapshot.load().isPresent());
+    }
+
+    private static Item item(long id, String name, String description, BigDecimal price) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setPrice(price);
+        return item;
+    }
+}
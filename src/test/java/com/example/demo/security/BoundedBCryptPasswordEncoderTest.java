@@ -0,0 +1,65 @@
+package com.example.demo.security;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedBCryptPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+    private final BoundedBCryptPasswordEncoder encoder = new BoundedBCryptPasswordEncoder(4, executor, 500);
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void hashes_on_the_pool() {
+        String hash = encoder.encode("password");
+
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(3, encoder.getHashCount());
+    }
+
+    @Test
+    public void rejects_when_pool_and_queue_are_full() {
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        assertEquals(1, encoder.getQueueDepth());
+
+        try {
+            encoder.encode("password");
+            throw new AssertionError("hash was accepted by a saturated pool");
+        } catch (PasswordHashingBusyException expected) {
+            assertEquals(1, encoder.getRejectedCount());
+        }
+    }
+
+    @Test(expected = PasswordHashingBusyException.class)
+    public void rejects_when_waiting_too_long() {
+        executor.execute(this::awaitRelease);
+
+        encoder.encode("password");
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
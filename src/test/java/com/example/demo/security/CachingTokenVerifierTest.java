@@ -0,0 +1,54 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+public class CachingTokenVerifierTest {
+
+    private final CachingTokenVerifier verifier = new CachingTokenVerifier(100, 600);
+
+    @Test
+    public void verified_token_is_served_from_cache() {
+        String token = token("cached", System.currentTimeMillis() + 60_000, SecurityConstants.SECRET);
+
+        assertEquals("cached", verifier.verify(token));
+        assertEquals("cached", verifier.verify(token));
+
+        assertEquals(1, verifier.getHitCount());
+        assertEquals(1, verifier.size());
+    }
+
+    @Test(expected = JWTVerificationException.class)
+    public void forged_token_is_rejected() {
+        verifier.verify(token("forged", System.currentTimeMillis() + 60_000, "not-the-secret"));
+    }
+
+    @Test
+    public void cached_token_is_rejected_after_it_expires() throws InterruptedException {
+        String token = token("expiring", System.currentTimeMillis() + 1_000, SecurityConstants.SECRET);
+        assertEquals("expiring", verifier.verify(token));
+
+        // exp has second precision and is compared against the current second
+        Thread.sleep(2_100);
+        try {
+            verifier.verify(token);
+            throw new AssertionError("expired token was accepted");
+        } catch (TokenExpiredException expected) {
+            assertEquals(0, verifier.size());
+        }
+    }
+
+    private static String token(String subject, long expiresAt, String secret) {
+        return JWT.create()
+                .withSubject(subject)
+                .withExpiresAt(new Date(expiresAt))
+                .sign(Algorithm.HMAC512(secret.getBytes()));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.security;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private final RateLimiter rateLimiter = new RateLimiter(true, 3, 1000, 2, 1, 3, 1, 3600);
+
+    @After
+    public void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    public void bucket_allows_burst_then_limits() {
+        assertEquals(0, rateLimiter.tryAcquire("alice", "/api/cart/addToCart"));
+        assertEquals(0, rateLimiter.tryAcquire("alice", "/api/cart/addToCart"));
+        assertEquals(0, rateLimiter.tryAcquire("alice", "/api/cart/addToCart"));
+
+        assertTrue(rateLimiter.tryAcquire("alice", "/api/cart/addToCart") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("bob", "/api/cart/addToCart"));
+        assertEquals(0, rateLimiter.tryAcquire("alice", "/api/item"));
+        assertEquals(1, rateLimiter.getLimitedCount());
+    }
+
+    @Test
+    public void bucket_refills_and_full_buckets_are_evicted() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("alice", "/api/item");
+        }
+        assertTrue(rateLimiter.tryAcquire("alice", "/api/item") > 0);
+
+        Thread.sleep(5);
+        assertEquals(0, rateLimiter.tryAcquire("alice", "/api/item"));
+
+        Thread.sleep(5);
+        rateLimiter.evictIdle();
+        assertEquals(0, rateLimiter.getBucketCount());
+    }
+
+    @Test
+    public void filter_answers_429_with_retry_after() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void bogus_bearer_header_does_not_escape_the_login_limit() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + "token");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void anonymous_filter_leaves_other_bearer_requests_to_the_authenticated_one() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/item");
+        request.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + "token");
+
+        for (int i = 0; i < 5; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+    }
+}
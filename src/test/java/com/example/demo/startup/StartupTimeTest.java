@@ -0,0 +1,63 @@
+package com.example.demo.startup;
+
+import com.example.demo.ECommerceApplication;
+import com.example.demo.search.ItemSearchIndex;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Boots the fast-startup profile twice: once without a catalog snapshot and
+ * once from the snapshot the first boot wrote. Both times are written to
+ * target/startup-time.properties so they can be tracked across builds.
+ */
+public class StartupTimeTest {
+
+    private static final Path SNAPSHOT = Paths.get("target", "startup", "catalog-snapshot.json");
+
+    @Test
+    public void fast_startup_profile_boots_from_validated_schema_and_snapshot() throws IOException {
+        Files.deleteIfExists(SNAPSHOT);
+
+        long coldMillis;
+        long now = System.nanoTime();
+        try (ConfigurableApplicationContext context = start()) {
+            coldMillis = (System.nanoTime() - now) / 1_000_000;
+            assertEquals(2, context.getBean(ItemSearchIndex.class).size());
+            assertTrue(context.getBeanFactory().getBeanDefinition("cartLocks").isLazyInit());
+            assertFalse(context.getBeanFactory().getBeanDefinition("itemController").isLazyInit());
+        }
+        assertTrue(Files.exists(SNAPSHOT));
+
+        long warmMillis;
+        now = System.nanoTime();
+        try (ConfigurableApplicationContext context = start()) {
+            warmMillis = (System.nanoTime() - now) / 1_000_000;
+            assertEquals(2, context.getBean(ItemSearchIndex.class).size());
+        }
+
+        Files.write(Paths.get("target", "startup-time.properties"), Arrays.asList(
+                "fast-startup.without-snapshot.millis=" + coldMillis,
+                "fast-startup.with-snapshot.millis=" + warmMillis), StandardCharsets.UTF_8);
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ECommerceApplication.class)
+                .profiles("fast-startup")
+                .run("--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1",
+                        "--ecommerce.catalog.snapshot.path=" + SNAPSHOT);
+    }
+}